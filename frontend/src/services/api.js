@@ -15,4 +15,48 @@ API.interceptors.request.use((config) => {
     return config;
 });
 
+// Access tokens are short-lived: on a 401, swap the refresh token for a new
+// pair once and retry the request. Concurrent 401s share one refresh call.
+let refreshing = null;
+
+const refreshTokens = () => {
+    if (!refreshing) {
+        const refreshToken = localStorage.getItem('refreshToken');
+        refreshing = axios.post('/api/auth/refresh', { refreshToken })
+            .then((response) => {
+                localStorage.setItem('token', response.data.token);
+                localStorage.setItem('refreshToken', response.data.refreshToken);
+                return response.data.token;
+            })
+            .finally(() => {
+                refreshing = null;
+            });
+    }
+    return refreshing;
+};
+
+API.interceptors.response.use(
+    (response) => response,
+    async (error) => {
+        const original = error.config;
+        const canRefresh = error.response?.status === 401 && original && !original._retried
+            && !original.url.startsWith('/auth/') && localStorage.getItem('refreshToken');
+        if (!canRefresh) {
+            return Promise.reject(error);
+        }
+        original._retried = true;
+        try {
+            const token = await refreshTokens();
+            original.headers.Authorization = `Bearer ${token}`;
+            return API(original);
+        } catch {
+            // Refresh token expired or revoked: the user has to sign in again
+            localStorage.removeItem('token');
+            localStorage.removeItem('refreshToken');
+            localStorage.removeItem('userId');
+            return Promise.reject(error);
+        }
+    }
+);
+
 export default API;
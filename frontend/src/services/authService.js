@@ -5,6 +5,7 @@ export const login = async (email, password) => {
     const response = await API.post('/auth/signin', { email, password });
     if (response.data.token) {
         localStorage.setItem('token', response.data.token);
+        localStorage.setItem('refreshToken', response.data.refreshToken);
         localStorage.setItem('userId', response.data.userId);
     }
     return response.data;
@@ -21,6 +22,14 @@ export const signup = async (formData) => {
 };
 
 export const logout = () => {
+    const token = localStorage.getItem('token');
+    const refreshToken = localStorage.getItem('refreshToken');
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('userId');
+    // Revoke both tokens server-side; the local sign-out does not wait for it
+    if (token) {
+        API.post('/auth/logout', { refreshToken }, { headers: { Authorization: `Bearer ${token}` } })
+            .catch(() => {});
+    }
 };
@@ -0,0 +1,69 @@
+// Checkout throughput: many buyers placing small orders at once.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=100 -e DURATION=1m loadtest/k6/checkout.js
+//
+// Run it against the app with orders.group-commit.enabled=true and =false to
+// compare group commit with one transaction per order (see loadtest/README.md).
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const PRODUCTS = parseInt(__ENV.PRODUCTS || '1000', 10);
+const EMAIL = __ENV.LOADTEST_EMAIL || 'loadtest@example.com';
+const PASSWORD = __ENV.LOADTEST_PASSWORD || 'LoadTest@123';
+
+const placed = new Counter('orders_placed');
+const failed = new Counter('orders_failed');
+
+export const options = {
+    scenarios: {
+        checkout: {
+            executor: 'constant-vus',
+            vus: parseInt(__ENV.VUS || '100', 10),
+            duration: __ENV.DURATION || '1m',
+        },
+    },
+    summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/signin`, JSON.stringify({ email: EMAIL, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    const headers = { 'Content-Type': 'application/json', Authorization: `Bearer ${res.json('token')}` };
+    // Enough stock that the run measures order writes, not sell-outs
+    for (let id = 1; id <= PRODUCTS; id++) {
+        http.post(`${BASE_URL}/api/products/${id}/stock`, JSON.stringify({ quantity: 100000 }), { headers });
+    }
+    return { headers };
+}
+
+export default function (data) {
+    const productId = 1 + Math.floor(Math.random() * PRODUCTS);
+    const res = http.post(`${BASE_URL}/api/orders`,
+        JSON.stringify({ items: [{ productId, quantity: 1 }] }), { headers: data.headers });
+    if (check(res, { 'order 200': (r) => r.status === 200 })) {
+        placed.add(1);
+    } else {
+        failed.add(1);
+    }
+}
+
+export function handleSummary(data) {
+    const seconds = data.state.testRunDurationMs / 1000;
+    const count = (name) => (data.metrics[name] ? data.metrics[name].values.count : 0);
+    const d = data.metrics.http_req_duration.values;
+    const lines = [
+        '',
+        `Checkout (${seconds.toFixed(0)}s)`,
+        `orders placed   ${count('orders_placed')} (${(count('orders_placed') / seconds).toFixed(1)}/s)`,
+        `orders failed   ${count('orders_failed')}`,
+        `latency ms      p50 ${d.med.toFixed(1)}  p95 ${d['p(95)'].toFixed(1)}  p99 ${d['p(99)'].toFixed(1)}`,
+        '',
+    ];
+    return {
+        stdout: lines.join('\n'),
+        'loadtest/results/checkout.json': JSON.stringify(data, null, 2),
+    };
+}
@@ -0,0 +1,100 @@
+// Flash-sale stress test: many buyers reserving the same product at once.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e PRODUCT_ID=1 -e STOCK=5000 -e VUS=200 loadtest/k6/flash-sale.js
+//
+// setup() tops the product up so exactly STOCK units are available, then
+// every VU reserves one unit and confirms it until the product sells out.
+// The run fails if more reservations succeed than there were units
+// (overselling) or if the stock left over does not add up.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const PRODUCT_ID = __ENV.PRODUCT_ID || '1';
+const STOCK = parseInt(__ENV.STOCK || '5000', 10);
+const EMAIL = __ENV.LOADTEST_EMAIL || 'loadtest@example.com';
+const PASSWORD = __ENV.LOADTEST_PASSWORD || 'LoadTest@123';
+
+const reserved = new Counter('reservations_ok');
+const soldOut = new Counter('reservations_sold_out');
+const confirmed = new Counter('reservations_confirmed');
+const unexpected = new Counter('reservations_unexpected');
+
+export const options = {
+    scenarios: {
+        flash_sale: {
+            executor: 'constant-vus',
+            vus: parseInt(__ENV.VUS || '200', 10),
+            duration: __ENV.DURATION || '30s',
+        },
+    },
+    thresholds: {
+        reservations_ok: [`count<=${STOCK}`],
+        reservations_unexpected: ['count==0'],
+    },
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/signin`, JSON.stringify({ email: EMAIL, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    const token = res.json('token');
+    const headers = { 'Content-Type': 'application/json', Authorization: `Bearer ${token}` };
+
+    const before = http.get(`${BASE_URL}/api/products/${PRODUCT_ID}/stock`).json('available');
+    if (before < STOCK) {
+        http.post(`${BASE_URL}/api/products/${PRODUCT_ID}/stock`, JSON.stringify({ quantity: STOCK - before }), { headers });
+    }
+    const start = http.get(`${BASE_URL}/api/products/${PRODUCT_ID}/stock`).json('available');
+    return { headers, start };
+}
+
+export default function (data) {
+    const res = http.post(`${BASE_URL}/api/products/${PRODUCT_ID}/reservations`, JSON.stringify({ quantity: 1 }),
+        { headers: data.headers, tags: { endpoint: 'reserve' } });
+    if (res.status === 409) {
+        soldOut.add(1);
+        return;
+    }
+    if (!check(res, { 'reserve 200': (r) => r.status === 200 })) {
+        unexpected.add(1);
+        return;
+    }
+    reserved.add(1);
+    const id = res.json('reservationId');
+    const ok = http.post(`${BASE_URL}/api/reservations/${id}/confirm`, null,
+        { headers: data.headers, tags: { endpoint: 'confirm' } });
+    if (check(ok, { 'confirm 200': (r) => r.status === 200 })) {
+        confirmed.add(1);
+    } else {
+        unexpected.add(1);
+    }
+}
+
+export function teardown(data) {
+    const after = http.get(`${BASE_URL}/api/products/${PRODUCT_ID}/stock`).json();
+    console.log(`stock before=${data.start} after=${after.available} reserved=${after.reserved}`);
+}
+
+export function handleSummary(data) {
+    const seconds = data.state.testRunDurationMs / 1000;
+    const count = (name) => (data.metrics[name] ? data.metrics[name].values.count : 0);
+    const ok = count('reservations_ok');
+    const start = data.setup_data ? data.setup_data.start : STOCK;
+    const lines = [
+        '',
+        `Flash sale on product ${PRODUCT_ID} (${seconds.toFixed(0)}s)`,
+        `units at start       ${start}`,
+        `reservations ok      ${ok} (${(ok / seconds).toFixed(1)}/s)`,
+        `confirmed            ${count('reservations_confirmed')}`,
+        `rejected (sold out)  ${count('reservations_sold_out')}`,
+        `unexpected errors    ${count('reservations_unexpected')}`,
+        ok > start ? 'FAIL: oversold' : 'OK: no overselling',
+        '',
+    ];
+    return {
+        stdout: lines.join('\n'),
+        'loadtest/results/flash-sale.json': JSON.stringify(data, null, 2),
+    };
+}
@@ -0,0 +1,138 @@
+// Mixed storefront workload for the ecommerce backend.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=50 -e DURATION=2m loadtest/k6/mixed-workload.js
+//
+// Every request is tagged with an `endpoint` name so the summary reports
+// p50/p95/p99 latency, throughput and error rate per endpoint, not just overall.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Rate } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const CATEGORIES = parseInt(__ENV.CATEGORIES || '40', 10);
+const EMAIL = __ENV.LOADTEST_EMAIL || 'loadtest@example.com';
+const PASSWORD = __ENV.LOADTEST_PASSWORD || 'LoadTest@123';
+
+// Relative weights of each scenario in the mix (override with MIX=browse:40,search:30,...)
+const DEFAULT_MIX = { browse: 35, category: 20, search: 30, filter: 10, signin: 5, sync: 0 };
+const MIX = parseMix(__ENV.MIX, DEFAULT_MIX);
+
+const SEARCH_TERMS = [
+    'phone', 'mobiles under 10000', 'laptop below 50000 rupees', 'books', 'watch',
+    'wireless headphones', 'shoes 2000 or less', 'premium camera', 'jackets upto 3000 rs',
+    'smart tv', 'kitchen', 'budget tablet', 'sporty bag', 'classic jewellery', 'printer',
+];
+
+const ENDPOINTS = ['browse', 'category', 'search', 'filter', 'signin', 'sync'];
+const errors = new Rate('endpoint_errors');
+
+export const options = {
+    scenarios: {
+        storefront: {
+            executor: 'constant-vus',
+            vus: parseInt(__ENV.VUS || '20', 10),
+            duration: __ENV.DURATION || '1m',
+        },
+    },
+    summaryTrendStats: ['avg', 'min', 'med', 'p(95)', 'p(99)', 'max', 'count'],
+    // One (always-passing) threshold per endpoint makes k6 keep per-tag sub-metrics.
+    thresholds: Object.fromEntries(ENDPOINTS.flatMap((e) => [
+        [`http_req_duration{endpoint:${e}}`, ['max>=0']],
+        [`endpoint_errors{endpoint:${e}}`, ['rate>=0']],
+        [`http_reqs{endpoint:${e}}`, ['count>=0']],
+    ])),
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/signin`, JSON.stringify({ email: EMAIL, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' }, tags: { endpoint: 'signin' } });
+    return { token: res.status === 200 ? res.json('token') : null };
+}
+
+export default function (data) {
+    const scenario = pick(MIX);
+    const page = Math.floor(Math.random() * 20);
+    switch (scenario) {
+        case 'browse':
+            send('browse', () => http.get(`${BASE_URL}/api/products?page=${page}&size=8`, tag('browse')));
+            break;
+        case 'category': {
+            const id = 1 + Math.floor(Math.random() * CATEGORIES);
+            send('category', () => http.get(`${BASE_URL}/api/products/category/${id}?page=${page}&size=10`, tag('category')));
+            break;
+        }
+        case 'search': {
+            const q = encodeURIComponent(SEARCH_TERMS[Math.floor(Math.random() * SEARCH_TERMS.length)]);
+            send('search', () => http.get(`${BASE_URL}/api/products/search?q=${q}&page=0&size=10`, tag('search')));
+            break;
+        }
+        case 'filter': {
+            const min = Math.floor(Math.random() * 2000);
+            send('filter', () => http.get(`${BASE_URL}/api/products/filter?min=${min}&max=${min + 1000}&page=${page % 5}&size=10`, tag('filter')));
+            break;
+        }
+        case 'signin':
+            send('signin', () => http.post(`${BASE_URL}/api/auth/signin`,
+                JSON.stringify({ email: EMAIL, password: PASSWORD }),
+                { headers: { 'Content-Type': 'application/json' }, tags: { endpoint: 'signin' } }));
+            break;
+        case 'sync':
+            send('sync', () => http.post(`${BASE_URL}/api/products/sync`, null, {
+                headers: data.token ? { Authorization: `Bearer ${data.token}` } : {},
+                tags: { endpoint: 'sync' },
+                timeout: '10m',
+            }));
+            break;
+    }
+}
+
+export function handleSummary(data) {
+    const seconds = data.state.testRunDurationMs / 1000;
+    const rows = ENDPOINTS.map((e) => {
+        const d = data.metrics[`http_req_duration{endpoint:${e}}`];
+        const n = data.metrics[`http_reqs{endpoint:${e}}`];
+        const err = data.metrics[`endpoint_errors{endpoint:${e}}`];
+        if (!d || !n || n.values.count === 0) return null;
+        return [e, n.values.count, (n.values.count / seconds).toFixed(1),
+            d.values.med.toFixed(1), d.values['p(95)'].toFixed(1), d.values['p(99)'].toFixed(1),
+            ((err ? err.values.rate : 0) * 100).toFixed(2) + '%'];
+    }).filter(Boolean);
+
+    const header = ['endpoint', 'requests', 'req/s', 'p50 ms', 'p95 ms', 'p99 ms', 'errors'];
+    const table = [header, ...rows].map((r) => r.map((c, i) => String(c).padEnd(i === 0 ? 10 : 10)).join(' ')).join('\n');
+    return {
+        stdout: `\nPer-endpoint results (${seconds.toFixed(0)}s)\n${table}\n`,
+        'loadtest/results/summary.json': JSON.stringify(data, null, 2),
+    };
+}
+
+function send(endpoint, fn) {
+    const res = fn();
+    const ok = check(res, { [`${endpoint} 2xx`]: (r) => r.status >= 200 && r.status < 300 });
+    errors.add(!ok, { endpoint });
+}
+
+function tag(endpoint) {
+    return { tags: { endpoint } };
+}
+
+function pick(mix) {
+    const total = Object.values(mix).reduce((a, b) => a + b, 0);
+    let r = Math.random() * total;
+    for (const [name, weight] of Object.entries(mix)) {
+        r -= weight;
+        if (r < 0) return name;
+    }
+    return 'browse';
+}
+
+function parseMix(raw, fallback) {
+    if (!raw) return fallback;
+    const mix = {};
+    raw.split(',').forEach((pair) => {
+        const [name, weight] = pair.split(':');
+        mix[name.trim()] = parseFloat(weight);
+    });
+    return mix;
+}
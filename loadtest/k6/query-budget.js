@@ -0,0 +1,53 @@
+// Query-count regression guard: calls every read endpoint of the product and
+// category APIs once and fails (non-zero exit) if any of them issued more
+// JDBC statements than its @QueryBudget allows.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 loadtest/k6/query-budget.js
+//
+// Needs the app running without the prod profile (query-stats.headers=true),
+// e.g. on the loadtest profile's embedded database. Run it in CI after the
+// catalog sync.
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+
+const ENDPOINTS = [
+    ['products', '/api/products?page=0&size=8'],
+    ['products sorted', '/api/products?page=3&size=8&sort=price_asc'],
+    ['by category', '/api/products/category/1?page=0&size=10'],
+    ['search', '/api/products/search?q=phone'],
+    ['browse', '/api/products/browse?categoryId=1&min=100&max=50000'],
+    ['filter', '/api/products/filter?min=100&max=5000'],
+    ['batch', '/api/products/batch?ids=1,2,3,4,5,6,7,8,9,10'],
+    ['by id', '/api/products/1'],
+    ['related', '/api/products/1/related'],
+    ['categories', '/api/categories'],
+    ['category', '/api/categories/1'],
+];
+
+export const options = {
+    vus: 1,
+    iterations: 1,
+    thresholds: {
+        checks: ['rate==1'],
+    },
+};
+
+export default function () {
+    const rows = [];
+    for (const [name, path] of ENDPOINTS) {
+        const res = http.get(`${BASE_URL}${path}`);
+        const count = parseInt(res.headers['X-Query-Count'] || '-1', 10);
+        const budget = parseInt(res.headers['X-Query-Budget'] || '-1', 10);
+        check(res, {
+            [`${name}: 200`]: (r) => r.status === 200,
+            [`${name}: stats headers present`]: () => count >= 0 && budget >= 0,
+            [`${name}: within query budget`]: () => count <= budget,
+        });
+        rows.push(`${name.padEnd(16)} ${String(count).padStart(3)} / ${budget}  `
+            + `entities ${res.headers['X-Entity-Loads']}  ${res.headers['X-Query-Time-Ms']} ms`);
+    }
+    console.log(`\nstatements / budget per endpoint\n${rows.join('\n')}`);
+}
@@ -0,0 +1,85 @@
+// Read-path throughput for signed-in shoppers: search and browse only.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=50 -e DURATION=1m loadtest/k6/search-browse.js
+//
+// Every request carries a JWT, so the authentication filter runs on each one.
+// Run it against the app with the old logging settings and with the prod
+// profile to compare (see loadtest/README.md).
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const CATEGORIES = parseInt(__ENV.CATEGORIES || '40', 10);
+const EMAIL = __ENV.LOADTEST_EMAIL || 'loadtest@example.com';
+const PASSWORD = __ENV.LOADTEST_PASSWORD || 'LoadTest@123';
+
+const SEARCH_TERMS = [
+    'phone', 'mobiles under 10000', 'laptop below 50000 rupees', 'books', 'watch',
+    'wireless headphones', 'shoes 2000 or less', 'premium camera', 'smart tv', 'budget tablet',
+];
+
+const failed = new Counter('requests_failed');
+
+export const options = {
+    scenarios: {
+        readers: {
+            executor: 'constant-vus',
+            vus: parseInt(__ENV.VUS || '50', 10),
+            duration: __ENV.DURATION || '1m',
+        },
+    },
+    summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+    // Keep per-endpoint sub-metrics in the summary
+    thresholds: {
+        'http_req_duration{endpoint:search}': ['max>=0'],
+        'http_req_duration{endpoint:browse}': ['max>=0'],
+        'http_reqs{endpoint:search}': ['count>=0'],
+        'http_reqs{endpoint:browse}': ['count>=0'],
+    },
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/signin`, JSON.stringify({ email: EMAIL, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    return { headers: { Authorization: `Bearer ${res.json('token')}` } };
+}
+
+export default function (data) {
+    const page = Math.floor(Math.random() * 20);
+    let res;
+    if (Math.random() < 0.5) {
+        const q = encodeURIComponent(SEARCH_TERMS[Math.floor(Math.random() * SEARCH_TERMS.length)]);
+        res = http.get(`${BASE_URL}/api/products/search?q=${q}&page=${page % 5}&size=10`,
+            { headers: data.headers, tags: { endpoint: 'search' } });
+    } else {
+        const categoryId = 1 + Math.floor(Math.random() * CATEGORIES);
+        res = http.get(`${BASE_URL}/api/products/browse?categoryId=${categoryId}&page=${page}&size=10`,
+            { headers: data.headers, tags: { endpoint: 'browse' } });
+    }
+    if (!check(res, { 'status 200': (r) => r.status === 200 })) {
+        failed.add(1);
+    }
+}
+
+export function handleSummary(data) {
+    const seconds = data.state.testRunDurationMs / 1000;
+    const row = (name) => {
+        const reqs = data.metrics[`http_reqs{endpoint:${name}}`];
+        const d = data.metrics[`http_req_duration{endpoint:${name}}`];
+        if (!reqs || !d) {
+            return `${name.padEnd(8)} no requests`;
+        }
+        const v = d.values;
+        return `${name.padEnd(8)} ${(reqs.values.count / seconds).toFixed(1).padStart(8)} req/s   `
+            + `p50 ${v.med.toFixed(1)}  p95 ${v['p(95)'].toFixed(1)}  p99 ${v['p(99)'].toFixed(1)} ms`;
+    };
+    const failures = data.metrics.requests_failed ? data.metrics.requests_failed.values.count : 0;
+    const lines = ['', `Search / browse (${seconds.toFixed(0)}s)`, row('search'), row('browse'),
+        `failed   ${failures}`, ''];
+    return {
+        stdout: lines.join('\n'),
+        'loadtest/results/search-browse.json': JSON.stringify(data, null, 2),
+    };
+}
@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# End-to-end load-test run: local Elasticsearch + app on the embedded database + k6.
+#
+#   LOADTEST_PRODUCTS=1000000 VUS=50 DURATION=5m ./loadtest/run.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+mkdir -p loadtest/results
+
+docker compose -f loadtest/docker-compose.yml up -d --wait
+
+./mvnw -q -B -Ploadtest package -DskipTests
+java ${JAVA_OPTS:--Xmx2g} -jar target/ecommerce-0.0.1-SNAPSHOT.jar \
+    --spring.profiles.active=loadtest > loadtest/results/app.log 2>&1 &
+APP_PID=$!
+trap 'kill $APP_PID 2>/dev/null || true' EXIT
+
+echo "Waiting for the app (catalog generation + ES sync can take a while)..."
+# The sync runs in the background after startup, so wait for its completion
+# line (ElasticsearchSyncRunner), not just for the app to answer.
+until grep -q "Elasticsearch sync complete" loadtest/results/app.log && curl -sf http://localhost:8080/api/products?size=1 > /dev/null; do
+    if ! kill -0 $APP_PID 2>/dev/null; then
+        echo "App exited early, see loadtest/results/app.log" >&2
+        exit 1
+    fi
+    if grep -q "Elasticsearch sync FAILED" loadtest/results/app.log; then
+        echo "Elasticsearch sync failed, see loadtest/results/app.log" >&2
+        exit 1
+    fi
+    sleep 5
+done
+
+k6 run \
+    -e BASE_URL=http://localhost:8080 \
+    -e VUS="${VUS:-20}" \
+    -e DURATION="${DURATION:-1m}" \
+    -e CATEGORIES="${LOADTEST_CATEGORIES:-40}" \
+    ${MIX:+-e MIX="$MIX"} \
+    loadtest/k6/mixed-workload.js
@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Cold-start measurement: time from launch until /actuator/health answers UP,
+# and the resident memory (RSS) of the JVM at that moment. MySQL and
+# Elasticsearch must be running (e.g. docker compose up -d db elasticsearch).
+#
+#   RUNS=5 ./loadtest/startup.sh java -jar target/ecommerce-0.0.1-SNAPSHOT.jar
+#   cd target/app && RUNS=5 ../../loadtest/startup.sh \
+#       java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar ecommerce-0.0.1-SNAPSHOT.jar
+set -euo pipefail
+
+RUNS="${RUNS:-3}"
+URL="${HEALTH_URL:-http://localhost:8080/actuator/health}"
+
+if [ $# -eq 0 ]; then
+    echo "usage: $0 <command that starts the app>" >&2
+    exit 1
+fi
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+    start=$(date +%s%N)
+    "$@" > /tmp/startup-run.log 2>&1 &
+    pid=$!
+    until curl -sf "$URL" > /dev/null; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "App exited early, see /tmp/startup-run.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    ready_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+    rss_mb=$(( $(awk '/VmRSS/ {print $2}' "/proc/$pid/status") / 1024 ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "run $run: ready in ${ready_ms} ms, RSS ${rss_mb} MB"
+    results+=("$ready_ms")
+done
+
+median=$(printf '%s\n' "${results[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR + 1) / 2)]}')
+echo "median time-to-ready: ${median} ms over ${RUNS} run(s)"
@@ -2,12 +2,18 @@ package com.codingmart.ecommerce;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * The entry point for our E-commerce application.
  * Elasticsearch sync on startup is handled by {@link ElasticsearchSyncRunner}.
+ * Scheduling drives periodic housekeeping such as rate-limit bucket eviction;
+ * async execution runs post-commit listeners (e.g. order follow-ups).
  */
 @SpringBootApplication
+@EnableScheduling
+@EnableAsync
 public class EcommerceApplication {
 
 	public static void main(String[] args) {
@@ -1,8 +1,11 @@
 package com.codingmart.ecommerce;
 
 import com.codingmart.ecommerce.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 /**
@@ -13,28 +16,35 @@ import org.springframework.stereotype.Component;
  * up) to avoid race conditions that could occur with CommandLineRunner or
  * 
  * @PostConstruct which run before the context is fully ready.
+ *
+ * The sync runs on the async executor: Spring Boot only reports the app as
+ * ready (readiness probe) after every ApplicationReadyEvent listener has
+ * returned, so a synchronous full reindex would delay it.
  */
 @Component
 public class ElasticsearchSyncRunner implements ApplicationListener<ApplicationReadyEvent> {
 
+    private static final Logger logger = LoggerFactory.getLogger(ElasticsearchSyncRunner.class);
+
     private final ProductService productService;
 
     public ElasticsearchSyncRunner(ProductService productService) {
         this.productService = productService;
     }
 
+    @Async
     @Override
     public void onApplicationEvent(ApplicationReadyEvent event) {
-        System.out.println("------------------------------------------");
-        System.out.println("⚡ Application ready — starting Elasticsearch sync...");
+        logger.info("Application ready — starting Elasticsearch sync...");
+        long start = System.nanoTime();
         try {
             productService.syncAllProducts();
-            System.out.println("✅ Elasticsearch sync complete! All products indexed.");
+            logger.info("Elasticsearch sync complete in {} ms, all products indexed",
+                    (System.nanoTime() - start) / 1_000_000);
         } catch (Exception e) {
             // Log the error but do NOT crash the application.
             // The app still works; only search is degraded.
-            System.err.println("⚠️  Elasticsearch sync FAILED (search may be degraded): " + e.getMessage());
+            logger.error("Elasticsearch sync FAILED (search may be degraded): {}", e.getMessage());
         }
-        System.out.println("------------------------------------------");
     }
 }
@@ -0,0 +1,284 @@
+package com.codingmart.ecommerce.cart;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory shopping carts with write-behind persistence to cart_items.
+ *
+ * Carts are spread over a fixed number of lock stripes keyed by user, so two
+ * users only contend when they hash to the same stripe and a cart is never
+ * touched by two requests at once. A cart is loaded from MySQL the first
+ * time it is used (the query runs outside the stripe lock) and then served
+ * from memory.
+ *
+ * Mutations only mark the cart dirty. Every cart.flush-interval the dirty
+ * carts are written in one transaction — a batched DELETE of their rows and
+ * a batched INSERT of their current lines — so a burst of add/remove clicks
+ * costs one write per cart per interval instead of one per click. A failed
+ * flush re-marks the carts dirty; shutdown flushes whatever is pending.
+ * Clean carts idle for cart.idle-timeout are dropped from memory and will be
+ * lazily reloaded.
+ *
+ * Carts are node-local: this assumes one backend instance, or sticky routing
+ * by user, as in the bundled docker-compose setup.
+ */
+@Component
+public class CartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+
+    private static final String SELECT_SQL =
+            "SELECT product_id, quantity FROM cart_items WHERE user_email = ? ORDER BY line_no";
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE user_email = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO cart_items (user_email, product_id, quantity, line_no) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cart.stripes:64}")
+    private int stripeCount;
+
+    @Value("${cart.idle-timeout:30m}")
+    private Duration idleTimeout;
+
+    private Stripe[] stripes;
+
+    /** Users whose cart changed since the last flush. */
+    private final Set<String> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    private Timer flushTimer;
+    private Counter flushFailures;
+
+    @PostConstruct
+    private void init() {
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        flushTimer = Timer.builder("cart.flush")
+                .description("Time to write one batch of dirty carts to MySQL")
+                .register(meterRegistry);
+        flushFailures = Counter.builder("cart.flush.failures")
+                .description("Cart flushes that failed and were retried on the next interval")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.carts", this, CartStore::size)
+                .description("Carts currently held in memory")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.dirty", dirtyUsers, Set::size)
+                .description("Carts changed in memory and not yet written to MySQL")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Copy of the user's cart lines (product id → quantity) in the order they
+     * were added.
+     */
+    public Map<Long, Integer> read(String user) {
+        return withCart(user, false, null);
+    }
+
+    /**
+     * Applies the mutation to the user's cart under its stripe lock and
+     * returns a copy of the result. If the mutation throws, the exception
+     * propagates and the cart is not marked dirty.
+     */
+    public Map<Long, Integer> update(String user, Consumer<Map<Long, Integer>> mutation) {
+        return withCart(user, true, mutation);
+    }
+
+    private Map<Long, Integer> withCart(String user, boolean write, Consumer<Map<Long, Integer>> mutation) {
+        Stripe stripe = stripes[Math.floorMod(user.hashCode(), stripes.length)];
+        LinkedHashMap<Long, Integer> loaded = null;
+        while (true) {
+            stripe.lock.lock();
+            try {
+                Cart cart = stripe.carts.get(user);
+                if (cart == null && loaded != null) {
+                    cart = new Cart(loaded);
+                    stripe.carts.put(user, cart);
+                }
+                if (cart != null) {
+                    cart.lastAccessNanos = System.nanoTime();
+                    if (write) {
+                        mutation.accept(cart.lines);
+                        cart.dirty = true;
+                        dirtyUsers.add(user);
+                    }
+                    return new LinkedHashMap<>(cart.lines);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            // First access on this node: load without holding the stripe, then retry.
+            // If another request installed the cart meanwhile, its copy wins.
+            loaded = load(user);
+        }
+    }
+
+    private LinkedHashMap<Long, Integer> load(String user) {
+        LinkedHashMap<Long, Integer> lines = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            lines.put(rs.getLong("product_id"), rs.getInt("quantity"));
+        }, user);
+        return lines;
+    }
+
+    /**
+     * Writes every dirty cart, then drops idle clean carts from memory.
+     * Synchronized so the scheduled run and the shutdown run never overlap,
+     * and eviction never races an in-flight write.
+     */
+    @Scheduled(fixedDelayString = "${cart.flush-interval:2s}")
+    public synchronized void flush() {
+        if (!dirtyUsers.isEmpty()) {
+            writeDirtyCarts();
+        }
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!dirtyUsers.isEmpty()) {
+            logger.error("Shutting down with {} cart(s) not written to MySQL", dirtyUsers.size());
+        }
+    }
+
+    private void writeDirtyCarts() {
+        Map<String, List<Map.Entry<Long, Integer>>> pending = new HashMap<>();
+        Iterator<String> it = dirtyUsers.iterator();
+        while (it.hasNext()) {
+            String user = it.next();
+            it.remove();
+            Stripe stripe = stripes[Math.floorMod(user.hashCode(), stripes.length)];
+            stripe.lock.lock();
+            try {
+                Cart cart = stripe.carts.get(user);
+                if (cart != null && cart.dirty) {
+                    pending.put(user, new ArrayList<>(new LinkedHashMap<>(cart.lines).entrySet()));
+                    cart.dirty = false;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> deletes = new ArrayList<>(pending.size());
+        List<Object[]> inserts = new ArrayList<>();
+        pending.forEach((user, lines) -> {
+            deletes.add(new Object[]{user});
+            int lineNo = 0;
+            for (Map.Entry<Long, Integer> line : lines) {
+                inserts.add(new Object[]{user, line.getKey(), line.getValue(), lineNo++});
+            }
+        });
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                }
+            });
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.debug("Flushed {} cart(s), {} line(s)", pending.size(), inserts.size());
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            logger.warn("Cart flush of {} cart(s) failed, will retry: {}", pending.size(), e.getMessage());
+            for (String user : pending.keySet()) {
+                markDirty(user);
+            }
+        }
+    }
+
+    private void markDirty(String user) {
+        Stripe stripe = stripes[Math.floorMod(user.hashCode(), stripes.length)];
+        stripe.lock.lock();
+        try {
+            Cart cart = stripe.carts.get(user);
+            if (cart != null) {
+                cart.dirty = true;
+                dirtyUsers.add(user);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.carts.values().removeIf(cart -> !cart.dirty && cart.lastAccessNanos - cutoff < 0);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.carts.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Cart> carts = new HashMap<>();
+    }
+
+    private static final class Cart {
+        final LinkedHashMap<Long, Integer> lines;
+        boolean dirty;
+        long lastAccessNanos;
+
+        Cart(LinkedHashMap<Long, Integer> lines) {
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.codingmart.ecommerce.controller;
+
+import com.codingmart.ecommerce.dto.SearchAnalyticsResponse;
+import com.codingmart.ecommerce.search.QueryAnalytics;
+import com.codingmart.ecommerce.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for operational views under /api/admin (token required).
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private QueryAnalytics queryAnalytics;
+
+    @Autowired
+    private ProductService productService;
+
+    /**
+     * GET /api/admin/search-analytics?limit=20
+     * Returns the top normalized search queries (with latency), the top
+     * zero-result queries, and the search cache size and hit rate.
+     */
+    @GetMapping("/search-analytics")
+    public SearchAnalyticsResponse getSearchAnalytics(
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        int capped = Math.max(1, Math.min(limit, 200));
+        return new SearchAnalyticsResponse(
+                queryAnalytics.topQueries(capped),
+                queryAnalytics.zeroResultQueries(capped),
+                productService.searchCacheSize(),
+                productService.searchCacheHitRate());
+    }
+}
@@ -1,13 +1,19 @@
 package com.codingmart.ecommerce.controller;
 
+import com.codingmart.ecommerce.diagnostics.QueryBudget;
 import com.codingmart.ecommerce.dto.LoginRequest;
 import com.codingmart.ecommerce.dto.LoginResponse;
+import com.codingmart.ecommerce.dto.RefreshTokenRequest;
 import com.codingmart.ecommerce.dto.SignupRequest;
 import com.codingmart.ecommerce.entity.User;
 import com.codingmart.ecommerce.repository.UserRepository;
 import com.codingmart.ecommerce.security.JwtUtil;
+import com.codingmart.ecommerce.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,7 +24,8 @@ import java.util.Map;
 import java.util.Optional;
 
 /**
- * Controller handling authentication requests (Signup and Signin).
+ * Controller handling authentication requests (Signup, Signin, token refresh
+ * and Logout).
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -33,9 +40,13 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     /**
      * Signup endpoint to register a new user.
      */
+    @QueryBudget(2)
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signupRequest) {
 
@@ -46,11 +57,9 @@ public class AuthController {
             return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
         }
 
-        // 2. Check if email is already taken
-        if (userRepository.findByUserEmail(signupRequest.getEmail()).isPresent()) {
-            Map<String, String> response = new HashMap<>();
-            response.put("error", "Email is already in use!");
-            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        // 2. Check if email is already taken (an existence check, no entity load)
+        if (userRepository.existsByUserEmail(signupRequest.getEmail())) {
+            return emailInUse();
         }
 
         // 3. Create new user entity and map DTO values
@@ -61,8 +70,12 @@ public class AuthController {
         // 4. Hash the password before saving!
         user.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
 
-        // 5. Save to database
-        userRepository.save(user);
+        // 5. Save to database; a concurrent signup for the same email hits the unique constraint
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            return emailInUse();
+        }
 
         Map<String, String> response = new HashMap<>();
         response.put("message", "User registered successfully!");
@@ -70,7 +83,8 @@ public class AuthController {
     }
 
     /**
-     * Signin endpoint to authenticate user and return a JWT.
+     * Signin endpoint to authenticate user and return an access token plus a
+     * refresh token.
      */
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
@@ -82,15 +96,90 @@ public class AuthController {
         if (userOptional.isPresent() &&
                 passwordEncoder.matches(loginRequest.getPassword(), userOptional.get().getPassword())) {
 
-            // 3. Generate token
-            String jwt = jwtUtil.generateToken(userOptional.get().getUserEmail());
-
-            return ResponseEntity.ok(new LoginResponse(jwt, "Login successful!", userOptional.get().getUser_id()));
+            // 3. Generate tokens
+            return ResponseEntity.ok(issueTokens(userOptional.get(), "Login successful!"));
         }
 
         // 4. Authentication failed
+        return unauthorized("Invalid email or password!");
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh
+     * token. Each refresh token works once: it is revoked here, and presenting
+     * it again (e.g. a stolen copy) fails.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(request.getRefreshToken());
+        } catch (JwtException | IllegalArgumentException e) {
+            return unauthorized("Invalid or expired refresh token!");
+        }
+        if (!JwtUtil.TYPE_REFRESH.equals(claims.get(JwtUtil.CLAIM_TYPE)) || claims.getId() == null) {
+            return unauthorized("Invalid or expired refresh token!");
+        }
+        // Single-use check across nodes: the primary key on jti, in the database only
+        if (!tokenRevocationService.consumeRefreshToken(claims.getId(), claims.getExpiration())) {
+            return unauthorized("Refresh token has already been used!");
+        }
+        Optional<User> user = userRepository.findByUserEmail(claims.getSubject());
+        if (user.isEmpty()) {
+            return unauthorized("Invalid or expired refresh token!");
+        }
+        return ResponseEntity.ok(issueTokens(user.get(), "Token refreshed"));
+    }
+
+    /**
+     * Revokes the caller's access token (Authorization header) and, if given,
+     * refresh token. Tokens that are already invalid are ignored.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(name = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            revokeQuietly(authHeader.substring(7));
+        }
+        if (request != null && request.getRefreshToken() != null) {
+            revokeQuietly(request.getRefreshToken());
+        }
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Logged out");
+        return ResponseEntity.ok(response);
+    }
+
+    private LoginResponse issueTokens(User user, String message) {
+        return new LoginResponse(jwtUtil.generateToken(user.getUserEmail()),
+                jwtUtil.generateRefreshToken(user.getUserEmail()),
+                jwtUtil.getAccessTokenTtlSeconds(), message, user.getUser_id());
+    }
+
+    private void revokeQuietly(String token) {
+        try {
+            Claims claims = jwtUtil.parseClaims(token);
+            if (claims.getId() == null) {
+                return;
+            }
+            if (JwtUtil.TYPE_REFRESH.equals(claims.get(JwtUtil.CLAIM_TYPE))) {
+                tokenRevocationService.consumeRefreshToken(claims.getId(), claims.getExpiration());
+            } else {
+                tokenRevocationService.revokeAccessToken(claims.getId(), claims.getExpiration());
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            // Expired or invalid: nothing to revoke
+        }
+    }
+
+    private static ResponseEntity<Map<String, String>> emailInUse() {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Email is already in use!");
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    private static ResponseEntity<Map<String, String>> unauthorized(String message) {
         Map<String, String> response = new HashMap<>();
-        response.put("error", "Invalid email or password!");
+        response.put("error", message);
         return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
     }
 }
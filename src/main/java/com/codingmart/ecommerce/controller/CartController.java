@@ -0,0 +1,66 @@
+package com.codingmart.ecommerce.controller;
+
+import com.codingmart.ecommerce.dto.CartItemRequest;
+import com.codingmart.ecommerce.dto.CartResponse;
+import com.codingmart.ecommerce.service.CartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for the shopping cart.
+ * Every endpoint works on the cart of the authenticated user (the JWT subject).
+ */
+@RestController
+@RequestMapping("/api/cart")
+public class CartController {
+
+    @Autowired
+    private CartService cartService;
+
+    /**
+     * GET /api/cart
+     * Returns the current user's cart with current prices.
+     */
+    @GetMapping
+    public CartResponse getCart(Authentication authentication) {
+        return cartService.getCart(authentication.getName());
+    }
+
+    /**
+     * POST /api/cart/items  {"productId": 3, "quantity": 2}
+     * Adds a product (or more of it) to the cart.
+     */
+    @PostMapping("/items")
+    public CartResponse addItem(Authentication authentication, @RequestBody CartItemRequest request) {
+        return cartService.addItem(authentication.getName(), request.getProductId(), request.getQuantity());
+    }
+
+    /**
+     * PUT /api/cart/items/{productId}  {"quantity": 5}
+     * Sets the quantity of a cart line; 0 removes it.
+     */
+    @PutMapping("/items/{productId}")
+    public CartResponse updateItem(Authentication authentication, @PathVariable("productId") Long productId,
+            @RequestBody CartItemRequest request) {
+        return cartService.updateItem(authentication.getName(), productId, request.getQuantity());
+    }
+
+    /**
+     * DELETE /api/cart/items/{productId}
+     * Removes a product from the cart.
+     */
+    @DeleteMapping("/items/{productId}")
+    public CartResponse removeItem(Authentication authentication, @PathVariable("productId") Long productId) {
+        return cartService.removeItem(authentication.getName(), productId);
+    }
+
+    /**
+     * DELETE /api/cart
+     * Empties the cart.
+     */
+    @DeleteMapping
+    public CartResponse clearCart(Authentication authentication) {
+        return cartService.clear(authentication.getName());
+    }
+}
@@ -1,5 +1,6 @@
 package com.codingmart.ecommerce.controller;
 
+import com.codingmart.ecommerce.diagnostics.QueryBudget;
 import com.codingmart.ecommerce.entity.Category;
 import com.codingmart.ecommerce.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +25,7 @@ public class CategoryController {
      * GET /api/categories?page=0&size=5
      * Returns a paginated list of categories.
      */
+    @QueryBudget(0)
     @GetMapping
     public Page<Category> getAllCategories(
             @RequestParam(name = "page", defaultValue = "0") int page,
@@ -36,6 +38,7 @@ public class CategoryController {
      * GET /api/categories/{id}
      * Returns a specific category if found, else 404 Not Found.
      */
+    @QueryBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<Category> getCategoryById(@PathVariable("id") Long id) {
         Category category = categoryService.getCategoryById(id);
@@ -0,0 +1,38 @@
+package com.codingmart.ecommerce.controller;
+
+import com.codingmart.ecommerce.dto.OrderRequest;
+import com.codingmart.ecommerce.dto.OrderResponse;
+import com.codingmart.ecommerce.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for orders of the authenticated user.
+ */
+@RestController
+@RequestMapping("/api/orders")
+public class OrderController {
+
+    @Autowired
+    private OrderService orderService;
+
+    /**
+     * POST /api/orders  {"items": [{"productId": 3, "quantity": 2}]}
+     * Places an order; without a body (or items) the whole cart is ordered.
+     */
+    @PostMapping
+    public OrderResponse placeOrder(Authentication authentication,
+            @RequestBody(required = false) OrderRequest request) {
+        return orderService.placeOrder(authentication.getName(), request);
+    }
+
+    /**
+     * GET /api/orders/{id}
+     * Returns one of the current user's orders.
+     */
+    @GetMapping("/{id}")
+    public OrderResponse getOrder(Authentication authentication, @PathVariable("id") Long id) {
+        return orderService.getOrder(authentication.getName(), id);
+    }
+}
@@ -1,19 +1,38 @@
 package com.codingmart.ecommerce.controller;
 
+import com.codingmart.ecommerce.diagnostics.QueryBudget;
 import com.codingmart.ecommerce.document.ProductDocument;
+import com.codingmart.ecommerce.dto.ProductBatchRequest;
+import com.codingmart.ecommerce.dto.ProductBatchResponse;
+import com.codingmart.ecommerce.dto.ProductImportReport;
+import com.codingmart.ecommerce.importer.ProductImportService;
+import com.codingmart.ecommerce.search.SearchSort;
 import com.codingmart.ecommerce.entity.Product;
+import com.codingmart.ecommerce.service.ProductExportService;
 import com.codingmart.ecommerce.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 
 /**
  * REST Controller for Product management (Discovery Flow).
+ *
+ * Listing, filter and search endpoints accept
+ * sort=relevance|price_asc|price_desc|newest, applied server-side across the
+ * whole result set (not per page).
  */
 @RestController
 @RequestMapping("/api/products")
@@ -22,58 +41,117 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
     /**
-     * GET /api/products?page=0&size=10
+     * GET /api/products?page=0&size=10&sort=newest
      * Returns a paginated list of all products.
      */
+    @QueryBudget(2)
     @GetMapping
     public Page<Product> getAllProducts(
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @RequestParam(name = "size", defaultValue = "8") int size) {
-        Pageable pageable = PageRequest.of(page, size);
+            @RequestParam(name = "size", defaultValue = "8") int size,
+            @RequestParam(name = "sort", required = false) String sort) {
+        Pageable pageable = PageRequest.of(page, size, SearchSort.fromParam(sort, SearchSort.RELEVANCE).toJpaSort());
         return productService.getAllProducts(pageable);
     }
 
     /**
-     * GET /api/products/category/{categoryId}?page=0&size=10
+     * GET /api/products/category/{categoryId}?page=0&size=10&sort=price_asc
      * Returns products belonging to a specific category.
      */
+    @QueryBudget(2)
     @GetMapping("/category/{categoryId}")
     public Page<Product> getProductsByCategoryId(
             @PathVariable("categoryId") Long categoryId,
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @RequestParam(name = "size", defaultValue = "10") int size) {
-        Pageable pageable = PageRequest.of(page, size);
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "sort", required = false) String sort) {
+        Pageable pageable = PageRequest.of(page, size, SearchSort.fromParam(sort, SearchSort.RELEVANCE).toJpaSort());
         return productService.getProductsByCategoryId(categoryId, pageable);
     }
 
     /**
-     * GET /api/products/search?keyword=...&page=0&size=10
+     * GET /api/products/search?q=...&page=0&size=10&sort=price_asc
      * Allows users to find products by name using Smart Search (Elasticsearch).
+     * Without a sort parameter, a sort intent in the text ("cheapest") applies.
      */
+    @QueryBudget(0)
     @GetMapping("/search")
     public Page<ProductDocument> searchProducts(
             @RequestParam(name = "q", defaultValue = "") String keyword,
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @RequestParam(name = "size", defaultValue = "10") int size) {
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "sort", required = false) String sort) {
         Pageable pageable = PageRequest.of(page, size);
-        return productService.searchProducts(keyword, pageable);
+        return productService.searchProducts(keyword, SearchSort.fromParam(sort, null), pageable);
     }
 
     /**
-     * GET /api/products/filter?min=0&max=1000&page=0&size=10
+     * GET /api/products/browse?categoryId=3&min=100&max=5000&q=cotton&sort=price_asc&page=0&size=10
+     * Combined browse/filter: every parameter is optional. Served from
+     * Elasticsearch, falling back to MySQL only when ES is unavailable.
+     */
+    @QueryBudget(2)
+    @GetMapping("/browse")
+    public Page<ProductDocument> browseProducts(
+            @RequestParam(name = "categoryId", required = false) Long categoryId,
+            @RequestParam(name = "min", required = false) BigDecimal min,
+            @RequestParam(name = "max", required = false) BigDecimal max,
+            @RequestParam(name = "q", required = false) String keyword,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "sort", required = false) String sort) {
+        Pageable pageable = PageRequest.of(page, size);
+        return productService.browseProducts(categoryId, min, max, keyword,
+                SearchSort.fromParam(sort, SearchSort.RELEVANCE), pageable);
+    }
+
+    /**
+     * GET /api/products/filter?min=0&max=1000&page=0&size=10&sort=price_desc
      * Allows users to filter products by price range.
      */
+    @QueryBudget(2)
     @GetMapping("/filter")
     public Page<Product> filterProductsByPrice(
             @RequestParam("min") BigDecimal min,
             @RequestParam("max") BigDecimal max,
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @RequestParam(name = "size", defaultValue = "10") int size) {
-        Pageable pageable = PageRequest.of(page, size);
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "sort", required = false) String sort) {
+        Pageable pageable = PageRequest.of(page, size, SearchSort.fromParam(sort, SearchSort.RELEVANCE).toJpaSort());
         return productService.filterByPrice(min, max, pageable);
     }
 
+    /**
+     * GET /api/products/export?categoryId=3&updatedSince=2024-01-01T00:00:00Z&gzip=true
+     * Streams the whole (optionally filtered) catalog as NDJSON, one product
+     * per line, instead of paging through /api/products. With gzip=true the
+     * body is a products.ndjson.gz download. Requires a token; 503 when
+     * export.max-concurrent exports are already running.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(name = "categoryId", required = false) Long categoryId,
+            @RequestParam(name = "updatedSince", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = productExportService.prepareExport(categoryId, updatedSince, gzip);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (gzip) {
+            response.contentType(MediaType.parseMediaType("application/gzip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson.gz\"");
+        } else {
+            response.contentType(MediaType.parseMediaType("application/x-ndjson"));
+        }
+        return response.body(body);
+    }
+
     /**
      * POST /api/products/sync
      * Manually triggers a sync from MySQL to Elasticsearch.
@@ -84,10 +162,58 @@ public class ProductController {
         return ResponseEntity.ok("Synchronization successful!");
     }
 
+    /**
+     * POST /api/products/import  (Content-Type: text/csv or application/x-ndjson)
+     * Bulk-loads products from the request body, streamed row by row, and
+     * reports how many were imported and which lines were rejected.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ProductImportReport importProducts(HttpServletRequest request) throws IOException {
+        ProductImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+        return productImportService.importProducts(request.getInputStream(), format);
+    }
+
+    /**
+     * GET /api/products/batch?ids=3,1,2
+     * Returns many products in one call, in the requested order, plus the
+     * ids that were not found.
+     */
+    @QueryBudget(1)
+    @GetMapping("/batch")
+    public ProductBatchResponse getProductsBatch(@RequestParam("ids") List<Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    /**
+     * POST /api/products/batch  {"ids": [3, 1, 2]}
+     * Same as the GET variant, for id lists too long for a query string.
+     */
+    @QueryBudget(1)
+    @PostMapping("/batch")
+    public ProductBatchResponse postProductsBatch(@RequestBody ProductBatchRequest request) {
+        return productService.getProductsByIds(request.getIds());
+    }
+
+    /**
+     * GET /api/products/{id}/related?limit=8
+     * Products similar to this one, best first (precomputed at each reindex).
+     */
+    @QueryBudget(1)
+    @GetMapping("/{id}/related")
+    public List<Product> getRelatedProducts(
+            @PathVariable("id") Long id,
+            @RequestParam(name = "limit", defaultValue = "8") int limit) {
+        return productService.getRelatedProducts(id, limit);
+    }
+
     /**
      * GET /api/products/{id}
      * Returns details for a single product.
      */
+    @QueryBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable("id") Long id) {
         Product product = productService.getProductById(id);
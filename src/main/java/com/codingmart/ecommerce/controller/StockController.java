@@ -0,0 +1,77 @@
+package com.codingmart.ecommerce.controller;
+
+import com.codingmart.ecommerce.dto.ReservationResponse;
+import com.codingmart.ecommerce.dto.StockRequest;
+import com.codingmart.ecommerce.dto.StockResponse;
+import com.codingmart.ecommerce.inventory.Reservation;
+import com.codingmart.ecommerce.inventory.StockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for product stock and reservations.
+ */
+@RestController
+@RequestMapping("/api")
+public class StockController {
+
+    @Autowired
+    private StockService stockService;
+
+    /**
+     * GET /api/products/{id}/stock
+     * Returns the units still available and currently reserved.
+     */
+    @GetMapping("/products/{id}/stock")
+    public StockResponse getStock(@PathVariable("id") Long id) {
+        return new StockResponse(id, stockService.available(id), stockService.reserved(id));
+    }
+
+    /**
+     * POST /api/products/{id}/stock  {"quantity": 100}
+     * Adds units to the product's stock.
+     */
+    @PostMapping("/products/{id}/stock")
+    public StockResponse restock(@PathVariable("id") Long id, @RequestBody StockRequest request) {
+        long available = stockService.restock(id, request.getQuantity());
+        return new StockResponse(id, available, stockService.reserved(id));
+    }
+
+    /**
+     * POST /api/products/{id}/reservations  {"quantity": 1}
+     * Holds units for the current user; 409 Conflict when not enough are left.
+     */
+    @PostMapping("/products/{id}/reservations")
+    public ReservationResponse reserve(Authentication authentication, @PathVariable("id") Long id,
+            @RequestBody StockRequest request) {
+        return toResponse(stockService.reserve(authentication.getName(), id, request.getQuantity()));
+    }
+
+    /**
+     * POST /api/reservations/{reservationId}/confirm
+     * Turns the reservation into a sale.
+     */
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ReservationResponse confirm(Authentication authentication,
+            @PathVariable("reservationId") String reservationId) {
+        return toResponse(stockService.confirm(authentication.getName(), reservationId));
+    }
+
+    /**
+     * DELETE /api/reservations/{reservationId}
+     * Cancels the reservation and puts the units back on sale.
+     */
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<Void> cancel(Authentication authentication,
+            @PathVariable("reservationId") String reservationId) {
+        stockService.cancel(authentication.getName(), reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ReservationResponse toResponse(Reservation reservation) {
+        return new ReservationResponse(reservation.getId(), reservation.getProductId(),
+                reservation.getQuantity(), reservation.getExpiresAt());
+    }
+}
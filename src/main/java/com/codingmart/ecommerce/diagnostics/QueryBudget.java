@@ -0,0 +1,25 @@
+package com.codingmart.ecommerce.diagnostics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most JDBC statements a handler may issue per request (Hibernate only),
+ * including count queries of paged results.
+ *
+ * Checked by {@link QueryStatsResponseAdvice} before the response body is
+ * written. A request over budget is counted (query_budget.exceeded), logged
+ * at WARN when query-stats.headers is on, and reported in the
+ * X-Query-Budget header so loadtest/k6/query-budget.js fails the run.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /** Maximum statements. */
+    int value();
+}
@@ -0,0 +1,59 @@
+package com.codingmart.ecommerce.diagnostics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Collects {@link RequestQueryStats} for every /api request and records them
+ * as per-route distributions: http.server.requests.statements and
+ * http.server.requests.entity_loads, tagged with the route pattern (e.g.
+ * /api/products/{id}), the same bounded tag http.server.requests uses.
+ * Response headers are added earlier, by {@link QueryStatsResponseAdvice},
+ * because by the time the chain returns the response is committed.
+ */
+@Component
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                String uri = pattern.toString();
+                DistributionSummary.builder("http.server.requests.statements")
+                        .description("JDBC statements issued by Hibernate per request")
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .record(stats.statements);
+                DistributionSummary.builder("http.server.requests.entity_loads")
+                        .description("Entities loaded by Hibernate per request")
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .record(stats.entityLoads);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.codingmart.ecommerce.diagnostics;
+
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.type.Type;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Wires per-request query statistics into Hibernate: this interceptor counts
+ * entity loads, and {@link QueryStatsSessionListener} is attached to every
+ * session for statements and cache lookups. Both only touch the current
+ * thread's {@link RequestQueryStats}, so outside a request they do nothing.
+ */
+@Component
+public class QueryStatsInterceptor implements Interceptor, HibernatePropertiesCustomizer {
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.INTERCEPTOR, this);
+        hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryStatsSessionListener.class.getName());
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.entityLoads++;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,81 @@
+package com.codingmart.ecommerce.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Reports the request's {@link RequestQueryStats} as response headers, just
+ * before the body is written, and checks {@link QueryBudget}:
+ *
+ *   X-Query-Count       JDBC statements so far
+ *   X-Query-Time-Ms     time spent executing them
+ *   X-Entity-Loads      entities loaded
+ *   X-Cache-Hits        second-level cache hits / misses, as "hits/misses"
+ *   X-Query-Budget      the handler's budget, when it declares one
+ *
+ * Headers are on unless query-stats.headers=false (the prod profile), since
+ * they describe the data access of each endpoint. Budget overruns are always
+ * counted in query_budget.exceeded.
+ */
+@ControllerAdvice
+public class QueryStatsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatsResponseAdvice.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${query-stats.headers:true}")
+    private boolean headers;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request, ServerHttpResponse response) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats == null) {
+            return body;
+        }
+        QueryBudget budget = returnType.getMethodAnnotation(QueryBudget.class);
+        if (headers) {
+            HttpHeaders out = response.getHeaders();
+            out.set("X-Query-Count", Integer.toString(stats.statements));
+            out.set("X-Query-Time-Ms", Long.toString(stats.getStatementMillis()));
+            out.set("X-Entity-Loads", Integer.toString(stats.entityLoads));
+            out.set("X-Cache-Hits", stats.cacheHits + "/" + stats.cacheMisses);
+            if (budget != null) {
+                out.set("X-Query-Budget", Integer.toString(budget.value()));
+            }
+        }
+        if (budget != null && stats.statements > budget.value()) {
+            String handler = returnType.getContainingClass().getSimpleName() + "." + returnType.getMethod().getName();
+            Counter.builder("query_budget.exceeded")
+                    .description("Requests whose handler issued more statements than its @QueryBudget")
+                    .tag("handler", handler)
+                    .register(meterRegistry)
+                    .increment();
+            if (headers) {
+                logger.warn("{} issued {} statements, budget {} ({})", handler, stats.statements,
+                        budget.value(), request.getURI().getPath());
+            }
+        }
+        return body;
+    }
+}
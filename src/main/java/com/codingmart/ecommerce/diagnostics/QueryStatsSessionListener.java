@@ -0,0 +1,58 @@
+package com.codingmart.ecommerce.diagnostics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Counts JDBC statements (single and batched) and second-level cache lookups
+ * of every Hibernate session into the current {@link RequestQueryStats}.
+ * Hibernate creates one instance per session (hibernate.session.events.auto).
+ */
+public class QueryStatsSessionListener implements SessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        started();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        ended();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        started();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        ended();
+    }
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            if (hit) {
+                stats.cacheHits++;
+            } else {
+                stats.cacheMisses++;
+            }
+        }
+    }
+
+    private static void started() {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.statementStart = System.nanoTime();
+        }
+    }
+
+    private static void ended() {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.statements++;
+            stats.statementNanos += System.nanoTime() - stats.statementStart;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.codingmart.ecommerce.diagnostics;
+
+/**
+ * Database work done on the current thread during one HTTP request: JDBC
+ * statements (and their time), entities loaded, and second-level cache
+ * hits/misses. Filled in by {@link QueryStatsInterceptor} and
+ * {@link QueryStatsSessionListener}; started and read by
+ * {@link QueryStatsFilter}.
+ *
+ * Work done on other threads (async listeners, the order writer, a shared
+ * single-flight call led by another request) is not attributed to the request.
+ * Statements issued through JdbcTemplate do not pass through Hibernate and
+ * are not counted.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    int statements;
+    long statementNanos;
+    int entityLoads;
+    int cacheHits;
+    int cacheMisses;
+    long statementStart;
+
+    private RequestQueryStats() {
+    }
+
+    static RequestQueryStats start() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** Stats of the request running on this thread, or null outside a request. */
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getStatementMillis() {
+        return statementNanos / 1_000_000;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getCacheMisses() {
+        return cacheMisses;
+    }
+}
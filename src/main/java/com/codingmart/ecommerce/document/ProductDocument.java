@@ -2,11 +2,19 @@ package com.codingmart.ecommerce.document;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.DateFormat;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.IndexOptions;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
+import org.springframework.data.elasticsearch.annotations.WriteTypeHint;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 /**
  * ProductDocument for Elasticsearch.
@@ -14,34 +22,74 @@ import java.math.BigDecimal;
  * results.
  * Also stores categoryName so we can search by category (e.g., "books" finds
  * items in "Books" category).
+ *
+ * Text fields use the custom analyzers from elasticsearch/product-settings.json:
+ * stemming, ASCII folding and (at search time) synonyms do the work that
+ * query-time fuzziness used to do, and the productName.trigram subfield
+ * catches partial words. Fuzziness is only a fallback tier in ProductService.
+ *
+ * Settings and mapping are managed explicitly (elasticsearch/product-*.json)
+ * rather than derived, and the index is only (re)created by the sync — see
+ * ProductService.syncAllProducts. The annotations below mirror the JSON
+ * mapping. No "_class" type hint is written into each document.
  */
 @Data
-@Document(indexName = "products")
+@Document(indexName = "products", createIndex = false, writeTypeHint = WriteTypeHint.FALSE)
+@Setting(settingPath = "/elasticsearch/product-settings.json")
+@Mapping(mappingPath = "/elasticsearch/product-mapping.json")
 public class ProductDocument {
 
     @Id
     private String id;
 
-    @Field(type = FieldType.Text, analyzer = "standard")
+    @MultiField(mainField = @Field(type = FieldType.Text, analyzer = "product_text", searchAnalyzer = "product_text_search"), otherFields = {
+            @InnerField(suffix = "trigram", type = FieldType.Text, analyzer = "product_trigram", indexOptions = IndexOptions.freqs, norms = false) })
     private String productName;
 
-    @Field(type = FieldType.Text, analyzer = "standard")
+    /**
+     * Still returned in hits: the product card renders a two-line excerpt.
+     * Positions are not indexed (no phrase queries run against it).
+     */
+    @Field(type = FieldType.Text, analyzer = "product_text", searchAnalyzer = "product_text_search", indexOptions = IndexOptions.freqs)
     private String productDescription;
 
-    @Field(type = FieldType.Double)
+    /**
+     * scaled_float (x100) stores paise as a long: exact for prices, smaller
+     * and faster to range-filter/sort than a double.
+     */
+    @Field(type = FieldType.Scaled_Float, scalingFactor = 100)
     private BigDecimal productPrice;
 
     /**
      * Denormalized: stored as keyword for exact filtering AND text for full-text
      * search.
      * This is how "books" query finds products under "Books" category.
+     * The "categoryName.keyword" subfield backs the exact term filter built from
+     * the category dictionary.
      */
-    @Field(type = FieldType.Text, analyzer = "standard")
+    @MultiField(mainField = @Field(type = FieldType.Text, analyzer = "product_text", searchAnalyzer = "product_text_search", norms = false), otherFields = {
+            @InnerField(suffix = "keyword", type = FieldType.Keyword) })
     private String categoryName;
 
     /**
      * Image URL preserved from MySQL so search results can display product images.
      */
-    @Field(type = FieldType.Keyword, index = false)
+    @Field(type = FieldType.Keyword, index = false, docValues = false)
     private String imageUrl;
+
+    /**
+     * Sort-only fields: not searchable (index = false), but with doc values
+     * so "newest" and the id tie-breaker sort without loading _source.
+     */
+    @Field(type = FieldType.Date, format = DateFormat.epoch_millis, index = false)
+    private Instant createdAt;
+
+    @Field(type = FieldType.Long, index = false)
+    private Long productId;
+
+    /**
+     * Exact category filter for the browse endpoint (/api/products/browse).
+     */
+    @Field(type = FieldType.Long)
+    private Long categoryId;
 }
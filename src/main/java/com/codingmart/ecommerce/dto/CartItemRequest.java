@@ -0,0 +1,12 @@
+package com.codingmart.ecommerce.dto;
+
+import lombok.Data;
+
+/**
+ * DTO for adding a product to the cart or changing its quantity.
+ */
+@Data
+public class CartItemRequest {
+    private Long productId;
+    private int quantity = 1;
+}
@@ -0,0 +1,33 @@
+package com.codingmart.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for the current user's cart, priced from the live product table.
+ * Lines whose product no longer exists are left out.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartResponse {
+    private List<CartLine> items;
+    private int totalQuantity;
+    private BigDecimal subtotal;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CartLine {
+        private Long productId;
+        private String productName;
+        private String imageUrl;
+        private BigDecimal unitPrice;
+        private int quantity;
+        private BigDecimal lineTotal;
+    }
+}
@@ -5,13 +5,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * DTO for sending authentication success response.
+ * DTO for sending authentication success response: a short-lived access
+ * token (expiresIn seconds) and the refresh token that renews it.
  */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class LoginResponse {
     private String token;
+    private String refreshToken;
+    private long expiresIn;
     private String message;
     private Long userId;
 }
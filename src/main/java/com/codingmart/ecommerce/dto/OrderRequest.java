@@ -0,0 +1,20 @@
+package com.codingmart.ecommerce.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO for placing an order. Without items the order is placed from the
+ * user's cart.
+ */
+@Data
+public class OrderRequest {
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+        private Long productId;
+        private int quantity = 1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.codingmart.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * DTO for a placed order and its lines (prices as charged at checkout).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderResponse {
+    private Long orderId;
+    private String status;
+    private BigDecimal totalAmount;
+    private Timestamp createdAt;
+    private List<Line> items;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Line {
+        private Long productId;
+        private String productName;
+        private BigDecimal unitPrice;
+        private int quantity;
+        private BigDecimal lineTotal;
+    }
+}
@@ -0,0 +1,13 @@
+package com.codingmart.ecommerce.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO for fetching many products in one call (POST /api/products/batch).
+ */
+@Data
+public class ProductBatchRequest {
+    private List<Long> ids;
+}
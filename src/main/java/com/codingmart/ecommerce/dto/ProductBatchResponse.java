@@ -0,0 +1,20 @@
+package com.codingmart.ecommerce.dto;
+
+import com.codingmart.ecommerce.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a batch product lookup: the found products in the order they were
+ * requested, plus the ids that do not exist.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchResponse {
+    private List<Product> products;
+    private List<Long> missingIds;
+}
@@ -0,0 +1,32 @@
+package com.codingmart.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO summarising a bulk product import: throughput, counts per stage and
+ * the (capped) list of rejected rows with their line numbers.
+ */
+@Data
+public class ProductImportReport {
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private long rowsIndexed;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
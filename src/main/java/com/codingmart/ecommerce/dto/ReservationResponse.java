@@ -0,0 +1,21 @@
+package com.codingmart.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * DTO for a stock reservation. It must be confirmed before expiresAt or the
+ * units go back on sale.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservationResponse {
+    private String reservationId;
+    private Long productId;
+    private int quantity;
+    private Instant expiresAt;
+}
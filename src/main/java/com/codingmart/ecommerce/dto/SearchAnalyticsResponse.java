@@ -0,0 +1,36 @@
+package com.codingmart.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the search analytics admin view: the most frequent normalized
+ * queries, the most frequent ones that found nothing, and the result cache.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchAnalyticsResponse {
+    private List<QueryStat> topQueries;
+    private List<QueryStat> zeroResultQueries;
+    private long cacheSize;
+    private double cacheHitRate;
+
+    /**
+     * searches is a Count-Min estimate (never under the true count); the
+     * other figures cover the time since the query became a top query.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class QueryStat {
+        private String query;
+        private long searches;
+        private long zeroResults;
+        private double avgLatencyMs;
+        private double maxLatencyMs;
+    }
+}
@@ -0,0 +1,11 @@
+package com.codingmart.ecommerce.dto;
+
+import lombok.Data;
+
+/**
+ * DTO for reserving or restocking units of a product.
+ */
+@Data
+public class StockRequest {
+    private int quantity = 1;
+}
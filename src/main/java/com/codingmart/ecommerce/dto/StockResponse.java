@@ -0,0 +1,18 @@
+package com.codingmart.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a product's stock: units still available and units held by
+ * live reservations.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockResponse {
+    private Long productId;
+    private long available;
+    private long reserved;
+}
@@ -0,0 +1,46 @@
+package com.codingmart.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One line of a user's shopping cart.
+ * Maps to the "cart_items" table in MySQL.
+ *
+ * Carts live in memory (CartStore) and are written here in batches; this
+ * entity only defines the table. The owner is the JWT subject (the user's
+ * email), so no users lookup is needed on the hot path.
+ */
+@Entity
+@Table(name = "cart_items")
+@IdClass(CartItem.Key.class)
+@Data
+public class CartItem {
+
+    @Id
+    @Column(name = "user_email", length = 150)
+    private String userEmail;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    /** Keeps the order in which lines were added. */
+    @Column(name = "line_no", nullable = false)
+    private int lineNo;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private String userEmail;
+        private Long productId;
+    }
+}
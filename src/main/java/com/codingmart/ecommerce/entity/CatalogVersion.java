@@ -0,0 +1,24 @@
+package com.codingmart.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Change counter for a slowly changing table (e.g. "categories").
+ * Maps to the "catalog_versions" table in MySQL.
+ *
+ * Writers bump the version in the same transaction as their change; every
+ * node polls it and reloads its in-memory snapshot when it moves.
+ */
+@Entity
+@Table(name = "catalog_versions")
+@Data
+public class CatalogVersion {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+}
@@ -0,0 +1,49 @@
+package com.codingmart.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order Entity representing a placed checkout.
+ * Maps to the "orders" table in MySQL.
+ *
+ * Orders are written by OrderWriter with plain JDBC batches (many orders per
+ * transaction); JPA is only used to read them back.
+ */
+@Entity
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created", columnList = "user_email, created_at")
+})
+@Data
+public class Order {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long orderId;
+
+    /** JWT subject of the buyer. */
+    @Column(name = "user_email", nullable = false, length = 150)
+    private String userEmail;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "created_at", nullable = false)
+    private Timestamp createdAt;
+
+    @OneToMany(mappedBy = "order")
+    @OrderBy("orderItemId")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<OrderItem> items = new ArrayList<>();
+}
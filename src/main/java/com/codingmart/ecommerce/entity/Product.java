@@ -1,5 +1,6 @@
 package com.codingmart.ecommerce.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.math.BigDecimal;
@@ -10,7 +11,15 @@ import java.sql.Timestamp;
  * Maps to the "products" table in MySQL.
  */
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Back sorted listings (?sort=price_asc|price_desc|newest), overall and per category
+        @Index(name = "idx_products_price", columnList = "product_price"),
+        @Index(name = "idx_products_created", columnList = "created_at"),
+        @Index(name = "idx_products_category_price", columnList = "category_id, product_price"),
+        @Index(name = "idx_products_category_created", columnList = "category_id, created_at"),
+        // Incremental exports (?updatedSince=)
+        @Index(name = "idx_products_updated", columnList = "updated_at")
+})
 @Data
 public class Product {
 
@@ -33,6 +42,28 @@ public class Product {
     @Column(name = "created_at", columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private Timestamp createdAt;
 
+    /**
+     * Maintained by MySQL itself (ON UPDATE), so JDBC bulk writes are covered
+     * as well as JPA ones.
+     */
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP")
+    private Timestamp updatedAt;
+
+    /**
+     * Units not yet sold. Reservations are tracked in memory by StockService
+     * and only confirmed sales are written back here, in batches. Rows start
+     * at 0 (including rows that predate the column) until an admin restocks.
+     */
+    @Column(name = "stock", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int stock;
+
+    /** Optimistic lock for stock writes (UPDATE ... WHERE version = ?). */
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
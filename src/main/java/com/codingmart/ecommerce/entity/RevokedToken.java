@@ -0,0 +1,40 @@
+package com.codingmart.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revoked JWT (access or refresh), by token id.
+ * Maps to the "revoked_tokens" table in MySQL.
+ *
+ * Every node polls this table for access-token rows newer than its last
+ * poll (by revoked_at, which is set from the database clock) and keeps those
+ * ids in memory; refresh-token rows are only ever read through the primary
+ * key. Rows are deleted once the token would have expired anyway.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_type_revoked_at", columnList = "token_type, revoked_at"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+public class RevokedToken {
+
+    /** The token's jti claim (a UUID). */
+    @Id
+    @Column(name = "jti", length = 36)
+    private String jti;
+
+    /** "access" or "refresh" (the token's typ claim). */
+    @Column(name = "token_type", nullable = false, length = 10,
+            columnDefinition = "VARCHAR(10) NOT NULL DEFAULT 'access'")
+    private String tokenType;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,32 @@
+package com.codingmart.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Saved heavy-hitter search query.
+ * Maps to the "search_query_stats" table in MySQL.
+ *
+ * QueryAnalytics rewrites this table with its current top queries, so the
+ * ranking (and the search cache warm-up that uses it) survives a restart.
+ */
+@Entity
+@Table(name = "search_query_stats")
+@Data
+public class SearchQueryStat {
+
+    /** Normalized form, e.g. "phone category:Mobiles price:..5000". */
+    @Id
+    @Column(name = "query_key", length = 400)
+    private String queryKey;
+
+    /** A raw query text that normalizes to queryKey. */
+    @Column(name = "sample_query", nullable = false, length = 200)
+    private String sampleQuery;
+
+    @Column(name = "sort_order", nullable = false, length = 20)
+    private String sortOrder;
+
+    @Column(name = "searches", nullable = false)
+    private long searches;
+}
@@ -0,0 +1,24 @@
+package com.codingmart.ecommerce.event;
+
+import com.codingmart.ecommerce.document.ProductDocument;
+
+import java.util.List;
+
+/**
+ * Published by ProductService after a full reindex (startup or
+ * POST /api/products/sync) has replaced the Elasticsearch index, so caches
+ * of search results and derived tables can be rebuilt. Carries the indexed
+ * documents; listeners must not modify them.
+ */
+public class CatalogReindexedEvent {
+
+    private final List<ProductDocument> documents;
+
+    public CatalogReindexedEvent(List<ProductDocument> documents) {
+        this.documents = documents;
+    }
+
+    public List<ProductDocument> getDocuments() {
+        return documents;
+    }
+}
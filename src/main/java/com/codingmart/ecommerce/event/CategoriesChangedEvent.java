@@ -0,0 +1,9 @@
+package com.codingmart.ecommerce.event;
+
+/**
+ * Published by CategorySnapshot each time it (re)loads — after a local write
+ * commits or a version poll sees another node's change — so derived in-memory
+ * views (e.g. the search category dictionary) can rebuild themselves.
+ */
+public class CategoriesChangedEvent {
+}
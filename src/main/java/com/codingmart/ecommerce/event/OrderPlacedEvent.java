@@ -0,0 +1,39 @@
+package com.codingmart.ecommerce.event;
+
+import java.util.List;
+
+/**
+ * Published once an order's transaction has committed. Listeners run
+ * asynchronously (@Async), off the checkout request and the order writer.
+ */
+public class OrderPlacedEvent {
+
+    private final Long orderId;
+    private final String userEmail;
+    private final List<Long> productIds;
+    private final boolean fromCart;
+
+    public OrderPlacedEvent(Long orderId, String userEmail, List<Long> productIds, boolean fromCart) {
+        this.orderId = orderId;
+        this.userEmail = userEmail;
+        this.productIds = productIds;
+        this.fromCart = fromCart;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    /** True when the order was placed from the user's cart (which should now drop those lines). */
+    public boolean isFromCart() {
+        return fromCart;
+    }
+}
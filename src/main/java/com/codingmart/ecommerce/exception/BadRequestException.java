@@ -0,0 +1,12 @@
+package com.codingmart.ecommerce.exception;
+
+/**
+ * Custom exception to be thrown when a request is well-formed but asks for
+ * something the API does not allow (e.g. too many ids in one batch).
+ */
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
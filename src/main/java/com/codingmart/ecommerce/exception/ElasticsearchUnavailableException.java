@@ -0,0 +1,12 @@
+package com.codingmart.ecommerce.exception;
+
+/**
+ * Thrown when Elasticsearch cannot be used for a request: the circuit breaker
+ * is open, the call missed its deadline, or the guard's pool is saturated.
+ */
+public class ElasticsearchUnavailableException extends RuntimeException {
+
+    public ElasticsearchUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.codingmart.ecommerce.exception;
+
+/**
+ * Custom exception to be thrown when a reservation asks for more units of a
+ * product than are still available.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.codingmart.ecommerce.exception;
+
+/**
+ * Custom exception to be thrown when a write pipeline is saturated or did
+ * not finish in time, so the client should retry later.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
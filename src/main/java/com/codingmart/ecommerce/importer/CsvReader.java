@@ -0,0 +1,76 @@
+package com.codingmart.ecommerce.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma-separated, double-quoted fields
+ * with "" as an escaped quote, quoted fields may span lines, CRLF or LF
+ * record ends. Reads one record at a time, so the upload is never buffered.
+ */
+final class CsvReader {
+
+    private final BufferedReader in;
+    private int line = 1;
+    private int recordLine;
+
+    CsvReader(BufferedReader in) {
+        this.in = in;
+    }
+
+    /** 1-based line on which the last returned record started. */
+    int recordLine() {
+        return recordLine;
+    }
+
+    /** Next record's fields, or null at end of input. */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        recordLine = line;
+
+        int c;
+        while ((c = in.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            in.reset();
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,18 @@
+package com.codingmart.ecommerce.importer;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * One product as it appears in an import file (a CSV record or an NDJSON line).
+ * The category is referenced by name and resolved against the category snapshot.
+ */
+@Data
+public class ImportRow {
+    private String productName;
+    private String productDescription;
+    private BigDecimal productPrice;
+    private String imageUrl;
+    private String categoryName;
+}
@@ -0,0 +1,362 @@
+package com.codingmart.ecommerce.importer;
+
+import com.codingmart.ecommerce.document.ProductDocument;
+import com.codingmart.ecommerce.dto.ProductImportReport;
+import com.codingmart.ecommerce.entity.Category;
+import com.codingmart.ecommerce.entity.Product;
+import com.codingmart.ecommerce.exception.BadRequestException;
+import com.codingmart.ecommerce.search.LocalProductIndex;
+import com.codingmart.ecommerce.service.CategorySnapshot;
+import com.codingmart.ecommerce.service.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming bulk import of products from CSV or NDJSON.
+ *
+ * Pipeline, one batch (import.batch-size rows) at a time:
+ * 1. parse — records are read one by one from the request stream (never the
+ *    whole file) and validated; categories are resolved by name from the
+ *    in-memory {@link CategorySnapshot}, so there is no lookup query per row;
+ * 2. insert — one JDBC batch per chunk. Product ids stay IDENTITY: Hibernate
+ *    cannot batch IDENTITY inserts, but a plain JDBC batch can, and with
+ *    rewriteBatchedStatements=true Connector/J sends it as a multi-row INSERT
+ *    and still returns every generated id;
+ * 3. index — the same rows, now with ids, go to Elasticsearch as one bulk
+ *    request, and into the local fallback index while its overlay has room
+ *    (search.local-index.max-overlay; a bigger import waits for the next sync).
+ * An ES failure does not undo the MySQL insert; the rows are counted as not
+ * indexed and the next full sync picks them up.
+ *
+ * CSV needs a header row naming the columns (productName, productDescription,
+ * productPrice, imageUrl, categoryName — any order); NDJSON has one object
+ * per line with the same field names.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO products "
+            + "(product_name, product_description, product_price, image_url, created_at, category_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99"); // DECIMAL(10,2)
+
+    public enum Format { CSV, NDJSON }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private LocalProductIndex localProductIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    /**
+     * Imports every valid row of the stream and reports what happened to the rest.
+     */
+    public ProductImportReport importProducts(InputStream body, Format format) throws IOException {
+        long start = System.nanoTime();
+        ProductImportReport report = new ProductImportReport();
+        Map<String, Category> categories = new HashMap<>();
+        for (Category category : categorySnapshot.all()) {
+            categories.put(category.getCategoryName().toLowerCase(Locale.ROOT), category);
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource source = format == Format.CSV ? new CsvSource(reader) : new NdjsonSource(reader);
+        List<Product> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+
+        while (true) {
+            ImportRow row;
+            try {
+                row = source.next();
+            } catch (RowException e) {
+                report.setRowsRead(report.getRowsRead() + 1);
+                reject(report, e.line, e.getMessage());
+                continue;
+            }
+            if (row == null) {
+                break;
+            }
+            report.setRowsRead(report.getRowsRead() + 1);
+
+            String problem = validate(row, categories);
+            if (problem != null) {
+                reject(report, source.line(), problem);
+                continue;
+            }
+            batch.add(toProduct(row, categories));
+            batchLines.add(source.line());
+            if (batch.size() == batchSize) {
+                flush(batch, batchLines, report);
+            }
+        }
+        flush(batch, batchLines, report);
+
+        report.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+        report.setRowsPerSecond(report.getRowsImported() * 1000.0 / Math.max(1, report.getElapsedMs()));
+        logger.info("Product import: {} read, {} imported, {} rejected, {} indexed in {} ms ({} rows/s)",
+                report.getRowsRead(), report.getRowsImported(), report.getRowsRejected(),
+                report.getRowsIndexed(), report.getElapsedMs(), Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    private String validate(ImportRow row, Map<String, Category> categories) {
+        if (row.getProductName() == null || row.getProductName().isBlank()) {
+            return "productName is required";
+        }
+        if (row.getProductName().length() > 200) {
+            return "productName is longer than 200 characters";
+        }
+        if (row.getImageUrl() != null && row.getImageUrl().length() > 255) {
+            return "imageUrl is longer than 255 characters";
+        }
+        BigDecimal price = row.getProductPrice();
+        if (price == null) {
+            return "productPrice is required";
+        }
+        if (price.signum() < 0 || price.compareTo(MAX_PRICE) > 0 || price.stripTrailingZeros().scale() > 2) {
+            return "productPrice must be between 0 and " + MAX_PRICE.toPlainString() + " with at most 2 decimals";
+        }
+        if (row.getCategoryName() == null || !categories.containsKey(row.getCategoryName().trim().toLowerCase(Locale.ROOT))) {
+            return "unknown category '" + row.getCategoryName() + "'";
+        }
+        return null;
+    }
+
+    private static Product toProduct(ImportRow row, Map<String, Category> categories) {
+        Product product = new Product();
+        product.setProductName(row.getProductName().trim());
+        product.setProductDescription(row.getProductDescription());
+        product.setProductPrice(row.getProductPrice());
+        product.setImageUrl(row.getImageUrl() == null || row.getImageUrl().isBlank() ? null : row.getImageUrl().trim());
+        product.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        product.setCategory(categories.get(row.getCategoryName().trim().toLowerCase(Locale.ROOT)));
+        return product;
+    }
+
+    /**
+     * Inserts the batch with one JDBC batch, then bulk-indexes it. A failed
+     * insert rejects the whole batch (it is one multi-row statement).
+     */
+    private void flush(List<Product> batch, List<Long> lines, ProductImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Product product = batch.get(i);
+                            ps.setString(1, product.getProductName());
+                            ps.setString(2, product.getProductDescription());
+                            ps.setBigDecimal(3, product.getProductPrice());
+                            ps.setString(4, product.getImageUrl());
+                            ps.setTimestamp(5, product.getCreatedAt());
+                            ps.setLong(6, product.getCategory().getCategoryId());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keys);
+
+            List<Map<String, Object>> generated = keys.getKeyList();
+            for (int i = 0; i < batch.size(); i++) {
+                Number id = (Number) generated.get(i).values().iterator().next();
+                batch.get(i).setProductId(id.longValue());
+            }
+            report.setRowsImported(report.getRowsImported() + batch.size());
+        } catch (DataAccessException e) {
+            String message = "batch insert failed: " + e.getMostSpecificCause().getMessage();
+            for (Long line : lines) {
+                reject(report, line, message);
+            }
+            clear(batch, lines);
+            return;
+        }
+
+        List<ProductDocument> documents = new ArrayList<>(batch.size());
+        for (Product product : batch) {
+            documents.add(productService.convertToDocument(product));
+        }
+        try {
+            elasticsearchOperations.save(documents);
+            report.setRowsIndexed(report.getRowsIndexed() + documents.size());
+        } catch (RuntimeException e) {
+            logger.warn("Bulk indexing of {} imported products failed (next sync will index them): {}",
+                    documents.size(), e.getMessage());
+        }
+        localProductIndex.upsertAll(documents);
+        clear(batch, lines);
+    }
+
+    private static void clear(List<Product> batch, List<Long> lines) {
+        batch.clear();
+        lines.clear();
+    }
+
+    private void reject(ProductImportReport report, long line, String message) {
+        report.setRowsRejected(report.getRowsRejected() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ProductImportReport.RowError(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    // ─── Row sources ─────────────────────────────────────────────────────────
+
+    private interface RowSource {
+        /** Next row, null at end of input; a malformed row throws RowException. */
+        ImportRow next() throws IOException;
+
+        /** Line number of the last returned row. */
+        long line();
+    }
+
+    private static final class RowException extends RuntimeException {
+        final long line;
+
+        RowException(long line, String message) {
+            super(message);
+            this.line = line;
+        }
+    }
+
+    private static final class CsvSource implements RowSource {
+        private final CsvReader csv;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvSource(BufferedReader reader) throws IOException {
+            this.csv = new CsvReader(reader);
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new BadRequestException("CSV import needs a header row");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+            if (!columns.containsKey("productName") || !columns.containsKey("productPrice")
+                    || !columns.containsKey("categoryName")) {
+                throw new BadRequestException("CSV header must name productName, productPrice and categoryName");
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> fields;
+            do {
+                fields = csv.next();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+
+            ImportRow row = new ImportRow();
+            row.setProductName(field(fields, "productName"));
+            row.setProductDescription(field(fields, "productDescription"));
+            row.setImageUrl(field(fields, "imageUrl"));
+            row.setCategoryName(field(fields, "categoryName"));
+            String price = field(fields, "productPrice");
+            if (price != null && !price.isBlank()) {
+                try {
+                    row.setProductPrice(new BigDecimal(price.trim()));
+                } catch (NumberFormatException e) {
+                    throw new RowException(csv.recordLine(), "productPrice '" + price + "' is not a number");
+                }
+            }
+            return row;
+        }
+
+        private String field(List<String> fields, String name) {
+            Integer index = columns.get(name);
+            return index != null && index < fields.size() ? fields.get(index) : null;
+        }
+
+        @Override
+        public long line() {
+            return csv.recordLine();
+        }
+    }
+
+    private final class NdjsonSource implements RowSource {
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+            try {
+                return objectMapper.readValue(text, ImportRow.class);
+            } catch (JsonProcessingException e) {
+                throw new RowException(line, "invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.codingmart.ecommerce.inventory;
+
+import java.time.Instant;
+
+/**
+ * Units of one product held for a user until they are confirmed (sold),
+ * cancelled, or the reservation expires.
+ */
+public final class Reservation {
+
+    private final String id;
+    private final Long productId;
+    private final int quantity;
+    private final String user;
+    private final Instant expiresAt;
+
+    Reservation(String id, Long productId, int quantity, String user, Instant expiresAt) {
+        this.id = id;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.user = user;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
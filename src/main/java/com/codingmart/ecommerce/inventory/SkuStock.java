@@ -0,0 +1,105 @@
+package com.codingmart.ecommerce.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory stock of one product.
+ *
+ * Available units are split across a few counters ("shards"), each padded
+ * onto its own cache line. A buyer starts at a random shard and takes units
+ * with a compare-and-set, moving to the next shard only when that one is
+ * empty, so concurrent buyers of one hot product mostly hit different
+ * counters instead of all retrying on one. No shard ever goes below zero,
+ * so the total can never be oversold.
+ *
+ * dbStock/version mirror the products row as last written or read; only
+ * the reconciler (StockService, synchronized) touches them.
+ */
+final class SkuStock {
+
+    /** 8 longs = 64 bytes: one shard per cache line. */
+    private static final int STRIDE = 8;
+
+    final Long productId;
+
+    private final int shards;
+    private final AtomicLongArray counters;
+
+    /** Units held by live reservations. */
+    final AtomicLong reserved = new AtomicLong();
+
+    /** Units sold (confirmed) but not yet subtracted in MySQL. */
+    final AtomicLong unflushedSold = new AtomicLong();
+
+    /** Set while the reconciler tries to drop this SKU from memory. */
+    volatile boolean closed;
+
+    volatile long lastUsedNanos = System.nanoTime();
+
+    long dbStock;
+    long version;
+
+    SkuStock(Long productId, long dbStock, long version, int shards) {
+        this.productId = productId;
+        this.dbStock = dbStock;
+        this.version = version;
+        this.shards = shards;
+        this.counters = new AtomicLongArray(shards * STRIDE);
+        add(dbStock);
+    }
+
+    /**
+     * Takes quantity units, all or nothing. On failure any units taken along
+     * the way are put back.
+     */
+    boolean tryTake(long quantity) {
+        long taken = take(quantity);
+        if (taken == quantity) {
+            return true;
+        }
+        if (taken > 0) {
+            add(taken);
+        }
+        return false;
+    }
+
+    /**
+     * Takes up to quantity units; returns how many it got.
+     */
+    long take(long quantity) {
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        long remaining = quantity;
+        for (int i = 0; i < shards && remaining > 0; i++) {
+            int slot = ((start + i) % shards) * STRIDE;
+            while (remaining > 0) {
+                long current = counters.get(slot);
+                if (current == 0) {
+                    break;
+                }
+                long grab = Math.min(current, remaining);
+                if (counters.compareAndSet(slot, current, current - grab)) {
+                    remaining -= grab;
+                }
+            }
+        }
+        return quantity - remaining;
+    }
+
+    /** Returns units (released reservation, restock) to a random shard. */
+    void add(long quantity) {
+        if (quantity > 0) {
+            counters.addAndGet(ThreadLocalRandom.current().nextInt(shards) * STRIDE, quantity);
+        }
+    }
+
+    /** Units that can still be reserved (a moment-in-time sum of the shards). */
+    long available() {
+        long sum = 0;
+        for (int i = 0; i < shards; i++) {
+            sum += counters.get(i * STRIDE);
+        }
+        return sum;
+    }
+}
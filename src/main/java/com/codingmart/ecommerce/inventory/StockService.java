@@ -0,0 +1,362 @@
+package com.codingmart.ecommerce.inventory;
+
+import com.codingmart.ecommerce.exception.BadRequestException;
+import com.codingmart.ecommerce.exception.InsufficientStockException;
+import com.codingmart.ecommerce.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock reservations without a row lock per buyer.
+ *
+ * A naive "UPDATE products SET stock = stock - 1" makes every buyer of a hot
+ * product queue on the same InnoDB row lock. Here the first reservation of a
+ * product loads its stock into a {@link SkuStock} (sharded in-memory
+ * counters) and from then on:
+ * - reserve takes units from memory (lock-free, never below zero) and
+ *   records a reservation that expires after stock.reservation-ttl;
+ * - cancel and expiry give the units back;
+ * - confirm turns them into a sale, counted as "unflushed".
+ * Every stock.reconcile-interval the unflushed sales of all products are
+ * subtracted in MySQL with one JDBC batch of versioned updates
+ * (... WHERE product_id = ? AND version = ?). A row whose version moved
+ * (changed outside this node) is re-read, the difference is applied to the
+ * in-memory counters, and the sale is retried on the next round. Shutdown
+ * runs a final reconciliation.
+ *
+ * Products with no activity for stock.idle-timeout and nothing pending are
+ * dropped from memory, so the next reservation starts from fresh MySQL
+ * values. Stock is node-local, like carts: one backend instance (or routing
+ * by product) is assumed.
+ */
+@Service
+public class StockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockService.class);
+
+    private static final String SELECT_SQL = "SELECT stock, version FROM products WHERE product_id = ?";
+    private static final String SELL_SQL =
+            "UPDATE products SET stock = stock - ?, version = version + 1 WHERE product_id = ? AND version = ?";
+    private static final String RESTOCK_SQL =
+            "UPDATE products SET stock = stock + ?, version = version + 1 WHERE product_id = ? AND version = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${stock.shards:8}")
+    private int shards;
+
+    @Value("${stock.reservation-ttl:10m}")
+    private Duration reservationTtl;
+
+    @Value("${stock.max-reservation-quantity:99}")
+    private int maxReservationQuantity;
+
+    @Value("${stock.idle-timeout:10m}")
+    private Duration idleTimeout;
+
+    private final ConcurrentHashMap<Long, SkuStock> skus = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> outcomes = new HashMap<>();
+    private Timer reconcileTimer;
+    private Counter reconcileConflicts;
+
+    @PostConstruct
+    private void initMetrics() {
+        for (String outcome : List.of("reserved", "rejected", "confirmed", "cancelled", "expired")) {
+            outcomes.put(outcome, Counter.builder("stock.reservations")
+                    .description("Stock reservation events by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+        reconcileTimer = Timer.builder("stock.reconcile")
+                .description("Time to write one batch of confirmed sales to MySQL")
+                .register(meterRegistry);
+        reconcileConflicts = Counter.builder("stock.reconcile.conflicts")
+                .description("Stock rows changed outside this node and re-read during reconciliation")
+                .register(meterRegistry);
+        Gauge.builder("stock.skus", skus, Map::size)
+                .description("Products whose stock is held in memory")
+                .register(meterRegistry);
+        Gauge.builder("stock.reservations.active", reservations, Map::size)
+                .description("Reservations not yet confirmed, cancelled or expired")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Units of the product that can still be reserved. Products not held in
+     * memory are answered straight from MySQL.
+     */
+    public long available(Long productId) {
+        SkuStock sku = skus.get(productId);
+        if (sku != null) {
+            return sku.available();
+        }
+        return readRow(productId)[0];
+    }
+
+    /** Units of the product held by live reservations on this node. */
+    public long reserved(Long productId) {
+        SkuStock sku = skus.get(productId);
+        return sku != null ? sku.reserved.get() : 0;
+    }
+
+    /**
+     * Holds quantity units for the user, or throws
+     * {@link InsufficientStockException} if they are not available.
+     */
+    public Reservation reserve(String user, Long productId, int quantity) {
+        if (quantity < 1 || quantity > maxReservationQuantity) {
+            throw new BadRequestException("quantity must be between 1 and " + maxReservationQuantity);
+        }
+        while (true) {
+            SkuStock sku = skus.computeIfAbsent(productId, this::load);
+            sku.lastUsedNanos = System.nanoTime();
+            if (!sku.tryTake(quantity)) {
+                outcomes.get("rejected").increment();
+                throw new InsufficientStockException("Only " + sku.available() + " unit(s) of product "
+                        + productId + " left");
+            }
+            sku.reserved.addAndGet(quantity);
+            Reservation reservation = new Reservation(UUID.randomUUID().toString(), productId, quantity, user,
+                    Instant.now().plus(reservationTtl));
+            reservations.put(reservation.getId(), reservation);
+            if (!sku.closed) {
+                outcomes.get("reserved").increment();
+                return reservation;
+            }
+            // The SKU was being dropped from memory while we reserved: undo and retry. The
+            // units go back too, since eviction may back off and the retry land on this SKU.
+            reservations.remove(reservation.getId());
+            sku.add(quantity);
+            sku.reserved.addAndGet(-quantity);
+        }
+    }
+
+    /**
+     * Turns the reservation into a sale. The units are subtracted in MySQL
+     * by the next reconciliation.
+     */
+    public Reservation confirm(String user, String reservationId) {
+        Reservation reservation = claim(user, reservationId);
+        SkuStock sku = skus.get(reservation.getProductId());
+        sku.unflushedSold.addAndGet(reservation.getQuantity());
+        sku.reserved.addAndGet(-reservation.getQuantity()); // after unflushedSold, see evictIdle
+        outcomes.get("confirmed").increment();
+        return reservation;
+    }
+
+    /**
+     * Records a sale whose reservation is gone — it expired (and its units
+     * went back on sale) before the order committed. The units are taken
+     * off sale again and subtracted in MySQL by the next reconciliation.
+     * Returns how many of them could not be taken back because other
+     * buyers already hold them: that many units are oversold.
+     */
+    public long recordUnreservedSale(Long productId, int quantity) {
+        while (true) {
+            SkuStock sku = skus.computeIfAbsent(productId, this::load);
+            sku.lastUsedNanos = System.nanoTime();
+            long taken = sku.take(quantity);
+            sku.unflushedSold.addAndGet(quantity);
+            if (!sku.closed) {
+                return quantity - taken;
+            }
+            // The SKU was being dropped from memory: undo and use a fresh copy
+            sku.unflushedSold.addAndGet(-quantity);
+            sku.add(taken);
+        }
+    }
+
+    /**
+     * Gives the reserved units back.
+     */
+    public void cancel(String user, String reservationId) {
+        release(claim(user, reservationId));
+        outcomes.get("cancelled").increment();
+    }
+
+    /** Removes a live reservation owned by the user; a foreign or expired one is "not found". */
+    private Reservation claim(String user, String reservationId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null || !reservation.getUser().equals(user)
+                || !reservations.remove(reservationId, reservation)) {
+            throw new ResourceNotFoundException("Reservation not found or expired: " + reservationId);
+        }
+        return reservation;
+    }
+
+    private void release(Reservation reservation) {
+        SkuStock sku = skus.get(reservation.getProductId());
+        sku.add(reservation.getQuantity());
+        sku.reserved.addAndGet(-reservation.getQuantity());
+    }
+
+    @Scheduled(fixedDelayString = "${stock.expiry-sweep-interval:1s}")
+    public void expireReservations() {
+        Instant now = Instant.now();
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.getExpiresAt().isBefore(now) && reservations.remove(reservation.getId(), reservation)) {
+                release(reservation);
+                outcomes.get("expired").increment();
+            }
+        }
+    }
+
+    /**
+     * Adds units to a product's stock, in MySQL and in memory.
+     */
+    public synchronized long restock(Long productId, int quantity) {
+        if (quantity < 1) {
+            throw new BadRequestException("quantity must be at least 1");
+        }
+        SkuStock sku = skus.get(productId);
+        if (sku == null) {
+            if (jdbcTemplate.update("UPDATE products SET stock = stock + ?, version = version + 1 WHERE product_id = ?",
+                    quantity, productId) == 0) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+            return readRow(productId)[0];
+        }
+        while (jdbcTemplate.update(RESTOCK_SQL, quantity, productId, sku.version) == 0) {
+            resync(sku);
+        }
+        sku.dbStock += quantity;
+        sku.version++;
+        sku.add(quantity);
+        return sku.available();
+    }
+
+    /**
+     * Writes all confirmed sales since the last run in one JDBC batch, then
+     * drops idle products from memory.
+     */
+    @Scheduled(fixedDelayString = "${stock.reconcile-interval:1s}")
+    public synchronized void reconcile() {
+        List<SkuStock> dirty = new ArrayList<>();
+        List<Long> sold = new ArrayList<>();
+        List<Object[]> args = new ArrayList<>();
+        for (SkuStock sku : skus.values()) {
+            long units = sku.unflushedSold.getAndSet(0);
+            if (units > 0) {
+                dirty.add(sku);
+                sold.add(units);
+                args.add(new Object[]{units, sku.productId, sku.version});
+            }
+        }
+        if (!dirty.isEmpty()) {
+            long start = System.nanoTime();
+            int[] counts;
+            try {
+                counts = jdbcTemplate.batchUpdate(SELL_SQL, args);
+            } catch (RuntimeException e) {
+                logger.warn("Stock reconciliation of {} product(s) failed, will retry: {}", dirty.size(), e.getMessage());
+                for (int i = 0; i < dirty.size(); i++) {
+                    dirty.get(i).unflushedSold.addAndGet(sold.get(i));
+                }
+                return;
+            }
+            for (int i = 0; i < dirty.size(); i++) {
+                SkuStock sku = dirty.get(i);
+                // 0 = version moved; SUCCESS_NO_INFO (-2) from a rewritten batch counts as applied
+                if (counts[i] == 0) {
+                    sku.unflushedSold.addAndGet(sold.get(i));
+                    resync(sku);
+                } else {
+                    sku.dbStock -= sold.get(i);
+                    sku.version++;
+                }
+            }
+            reconcileTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void reconcileOnShutdown() {
+        reconcile();
+    }
+
+    /**
+     * Re-reads a row changed outside this node and moves the in-memory
+     * counters by the difference.
+     */
+    private void resync(SkuStock sku) {
+        reconcileConflicts.increment();
+        long[] row = readRow(sku.productId);
+        long delta = row[0] - sku.dbStock;
+        sku.dbStock = row[0];
+        sku.version = row[1];
+        if (delta > 0) {
+            sku.add(delta);
+        } else if (delta < 0) {
+            long shortfall = -delta - sku.take(-delta);
+            if (shortfall > 0) {
+                logger.warn("Stock of product {} was lowered externally below what is already reserved ({} unit(s) short)",
+                        sku.productId, shortfall);
+            }
+        }
+    }
+
+    /**
+     * Drops idle SKUs with no live reservations and no unflushed sales.
+     * closed is raised first and the counters re-checked afterwards, so a
+     * reservation racing the removal either is seen here (and the SKU stays)
+     * or sees closed and retries on a fresh copy.
+     */
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        for (SkuStock sku : skus.values()) {
+            if (sku.lastUsedNanos - cutoff >= 0 || sku.reserved.get() != 0 || sku.unflushedSold.get() != 0) {
+                continue;
+            }
+            sku.closed = true;
+            if (sku.reserved.get() == 0 && sku.unflushedSold.get() == 0) {
+                skus.remove(sku.productId, sku);
+            } else {
+                sku.closed = false;
+            }
+        }
+    }
+
+    private SkuStock load(Long productId) {
+        long[] row = readRow(productId);
+        return new SkuStock(productId, row[0], row[1], shards);
+    }
+
+    /** {stock, version} of the product row. */
+    private long[] readRow(Long productId) {
+        try {
+            return jdbcTemplate.queryForObject(SELECT_SQL,
+                    (rs, rowNum) -> new long[]{rs.getLong("stock"), rs.getLong("version")}, productId);
+        } catch (EmptyResultDataAccessException e) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+    }
+}
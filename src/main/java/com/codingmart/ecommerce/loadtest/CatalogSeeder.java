@@ -0,0 +1,173 @@
+package com.codingmart.ecommerce.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Catalog generator for the "loadtest" profile.
+ *
+ * Fills the embedded database with a deterministic, realistically skewed
+ * catalog (millions of products spread over a few dozen categories) plus one
+ * known user for the signin scenario. Runs as an ApplicationRunner, i.e.
+ * BEFORE ApplicationReadyEvent, so {@code ElasticsearchSyncRunner} indexes
+ * the generated rows on the same startup.
+ *
+ * Rows are written with plain JDBC batches — going through JPA would make
+ * seeding itself the slowest part of a load-test run.
+ */
+@Component
+@Profile("loadtest")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CatalogSeeder implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSeeder.class);
+
+    private static final String[] CATEGORY_NAMES = {
+            "Mobiles", "Laptops", "Books", "Watches", "Shoes", "Jackets", "Headphones", "Cameras",
+            "Televisions", "Furniture", "Toys", "Groceries", "Beauty", "Kitchen", "Sports",
+            "Bags", "Jewellery", "Tablets", "Monitors", "Printers" };
+
+    private static final String[] ADJECTIVES = {
+            "Classic", "Premium", "Smart", "Ultra", "Compact", "Wireless", "Pro", "Lite", "Eco",
+            "Vintage", "Sporty", "Elegant", "Rugged", "Portable", "Deluxe", "Budget" };
+
+    private static final String[] BRANDS = {
+            "Acme", "Zenith", "Nova", "Orion", "Vertex", "Lumen", "Quanta", "Stellar", "Apex", "Nimbus" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${loadtest.catalog.products}")
+    private long productCount;
+
+    @Value("${loadtest.catalog.categories}")
+    private int categoryCount;
+
+    @Value("${loadtest.catalog.batch-size}")
+    private int batchSize;
+
+    @Value("${loadtest.catalog.seed}")
+    private long seed;
+
+    @Value("${loadtest.user.email}")
+    private String userEmail;
+
+    @Value("${loadtest.user.password}")
+    private String userPassword;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        seedUser();
+        List<Long> categoryIds = seedCategories();
+
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+        long alreadySeeded = existing == null ? 0 : existing;
+        if (alreadySeeded >= productCount) {
+            logger.info("Load-test catalog already has {} products — skipping generation", alreadySeeded);
+            return;
+        }
+        seedProducts(categoryIds, alreadySeeded);
+    }
+
+    private void seedUser() {
+        Integer users = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE user_email = ?", Integer.class, userEmail);
+        if (users != null && users > 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users (user_name, user_email, password) VALUES (?, ?, ?)",
+                "Load Test", userEmail, passwordEncoder.encode(userPassword));
+    }
+
+    private List<Long> seedCategories() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT category_id FROM categories ORDER BY category_id", Long.class);
+        if (ids.size() >= categoryCount) {
+            return ids;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = ids.size(); i < categoryCount; i++) {
+            String base = CATEGORY_NAMES[i % CATEGORY_NAMES.length];
+            String name = i < CATEGORY_NAMES.length ? base : base + " " + (i / CATEGORY_NAMES.length + 1);
+            rows.add(new Object[] { name, "Generated category " + name, new Timestamp(System.currentTimeMillis()) });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO categories (category_name, category_description, created_at) VALUES (?, ?, ?)", rows);
+        return jdbcTemplate.queryForList("SELECT category_id FROM categories ORDER BY category_id", Long.class);
+    }
+
+    /**
+     * Generates products in fixed-size JDBC batches. Category popularity follows
+     * a Zipf-like skew (a few huge categories, a long tail of small ones) and
+     * prices are log-normally distributed, which is what real browse/filter
+     * traffic hits.
+     */
+    private void seedProducts(List<Long> categoryIds, long from) {
+        Random random = new Random(seed + from);
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        String sql = "INSERT INTO products (product_name, product_description, product_price, image_url, created_at, category_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long i = from; i < productCount; i++) {
+            int categoryIndex = skewedIndex(random, categoryIds.size());
+            String category = CATEGORY_NAMES[categoryIndex % CATEGORY_NAMES.length];
+            String name = BRANDS[random.nextInt(BRANDS.length)] + " "
+                    + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + singular(category) + " " + (i % 997);
+            String description = "A " + ADJECTIVES[random.nextInt(ADJECTIVES.length)].toLowerCase() + " "
+                    + singular(category).toLowerCase() + " for everyday use. Model " + i + ".";
+            BigDecimal price = BigDecimal.valueOf(Math.exp(6 + random.nextGaussian() * 1.4))
+                    .setScale(2, RoundingMode.HALF_UP);
+            // Spread creation dates over the last year so "newest" sorts are meaningful
+            Timestamp createdAt = new Timestamp(now - (long) (random.nextDouble() * 365L * 24 * 3600 * 1000));
+
+            batch.add(new Object[] { name, description, price, "/images/placeholder.png", createdAt,
+                    categoryIds.get(categoryIndex) });
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+                if ((i + 1) % (batchSize * 20L) == 0) {
+                    logger.info("Generated {} / {} products", i + 1, productCount);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Generated {} products in {} ms", productCount - from, elapsedMs);
+    }
+
+    private static int skewedIndex(Random random, int size) {
+        // Inverse-CDF sample of a rough Zipf(1) distribution over [0, size)
+        double u = random.nextDouble();
+        int index = (int) Math.floor(Math.pow(size + 1, u)) - 1;
+        return Math.min(Math.max(index, 0), size - 1);
+    }
+
+    private static String singular(String category) {
+        String first = category.split(" ")[0];
+        return first.endsWith("s") ? first.substring(0, first.length() - 1) : first;
+    }
+}
@@ -0,0 +1,47 @@
+package com.codingmart.ecommerce.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a sample of requests (method, path, status, duration) at DEBUG.
+ *
+ * Off unless this logger is set to DEBUG, normally at runtime:
+ * POST /actuator/loggers/com.codingmart.ecommerce.logging.RequestLoggingFilter
+ * {"configuredLevel": "DEBUG"} (admin token). Then request-log.sample-rate of the requests
+ * are logged. While off, the cost per request is one level check.
+ */
+@Component
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
+
+    @Value("${request-log.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        if (!logger.isDebugEnabled() || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            logger.debug("{} {} -> {} in {} ms", request.getMethod(), request.getRequestURI(),
+                    response.getStatus(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.codingmart.ecommerce.logging;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a sample of the SQL Hibernate sends, at DEBUG, as a runtime-switchable
+ * replacement for spring.jpa.show-sql (which prints every statement to stdout).
+ *
+ * Off unless this logger is set to DEBUG (via /actuator/loggers); then
+ * sql-log.sample-rate of the statements are logged, unformatted, on one line.
+ * For every statement, use org.hibernate.SQL=DEBUG instead. JdbcTemplate
+ * statements do not pass through Hibernate and are not covered.
+ */
+@Component
+public class SampledSqlLogger implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampledSqlLogger.class);
+
+    @Value("${sql-log.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (logger.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            logger.debug("SQL: {}", sql);
+        }
+        return sql;
+    }
+}
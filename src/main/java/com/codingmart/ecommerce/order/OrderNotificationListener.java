@@ -0,0 +1,43 @@
+package com.codingmart.ecommerce.order;
+
+import com.codingmart.ecommerce.event.OrderPlacedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the order confirmation once an order has committed. There is no mail
+ * integration yet, so the "notification" is a log line and a counter; it runs
+ * on the async executor so a slow channel never delays checkout.
+ */
+@Component
+public class OrderNotificationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNotificationListener.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter sent;
+
+    @PostConstruct
+    private void initMetrics() {
+        sent = Counter.builder("orders.notifications")
+                .description("Order confirmations sent")
+                .register(meterRegistry);
+    }
+
+    @Async
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        logger.info("Order {} confirmed for {} ({} product(s))",
+                event.getOrderId(), event.getUserEmail(), event.getProductIds().size());
+        sent.increment();
+    }
+}
@@ -0,0 +1,74 @@
+package com.codingmart.ecommerce.order;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An order waiting to be written by {@link OrderWriter}. Its future completes
+ * with the generated order id once the transaction holding it commits, or
+ * exceptionally if it could not be written.
+ */
+public final class PendingOrder {
+
+    private final String userEmail;
+    private final Timestamp createdAt;
+    private final BigDecimal totalAmount;
+    private final List<Line> lines;
+    final CompletableFuture<Long> future = new CompletableFuture<>();
+
+    public PendingOrder(String userEmail, Timestamp createdAt, BigDecimal totalAmount, List<Line> lines) {
+        this.userEmail = userEmail;
+        this.createdAt = createdAt;
+        this.totalAmount = totalAmount;
+        this.lines = lines;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /** One priced order line. */
+    public static final class Line {
+        private final Long productId;
+        private final String productName;
+        private final BigDecimal unitPrice;
+        private final int quantity;
+
+        public Line(Long productId, String productName, BigDecimal unitPrice, int quantity) {
+            this.productId = productId;
+            this.productName = productName;
+            this.unitPrice = unitPrice;
+            this.quantity = quantity;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public BigDecimal getUnitPrice() {
+            return unitPrice;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+}
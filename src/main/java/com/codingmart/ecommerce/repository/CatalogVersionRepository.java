@@ -0,0 +1,22 @@
+package com.codingmart.ecommerce.repository;
+
+import com.codingmart.ecommerce.entity.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for CatalogVersion entity.
+ */
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, String> {
+
+    /**
+     * Atomically bumps a version counter; returns 0 if the row does not exist yet.
+     */
+    @Modifying
+    @Query("UPDATE CatalogVersion v SET v.version = v.version + 1 WHERE v.name = :name")
+    int increment(@Param("name") String name);
+}
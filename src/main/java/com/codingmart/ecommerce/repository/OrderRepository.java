@@ -0,0 +1,21 @@
+package com.codingmart.ecommerce.repository;
+
+import com.codingmart.ecommerce.entity.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for Order entity (reads only; writes go through OrderWriter).
+ */
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /**
+     * Loads an order of the given user together with its items in one query.
+     */
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findByOrderIdAndUserEmail(Long orderId, String userEmail);
+}
@@ -3,16 +3,24 @@ package com.codingmart.ecommerce.repository;
 import com.codingmart.ecommerce.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Repository interface for Product entity.
+ *
+ * Product.category is an eager association: every finder that returns
+ * products for a response joins it (@EntityGraph), otherwise Hibernate
+ * issues one extra select per distinct category on the page.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     /**
      * Finds products by category name with pagination.
@@ -23,13 +31,30 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     /**
      * Finds products by category ID with pagination.
      */
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByCategoryCategoryId(Long categoryId, Pageable pageable);
 
     /**
      * Finds all products with pagination.
      */
+    @Override
+    @EntityGraph(attributePaths = "category")
     Page<Product> findAll(Pageable pageable);
 
+    /**
+     * Loads every product (full reindex).
+     */
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+
+    /**
+     * Browse fallback (category/price/keyword Specification) with pagination.
+     */
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+
     /**
      * Keyword search for products by name (case-insensitive).
      */
@@ -38,5 +63,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     /**
      * Filter products by price range.
      */
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByProductPriceBetween(BigDecimal min, BigDecimal max, Pageable pageable);
+
+    /**
+     * Loads many products by id in one query, joining their category instead
+     * of issuing a follow-up select per category.
+     */
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAllById(Iterable<Long> ids);
 }
@@ -0,0 +1,49 @@
+package com.codingmart.ecommerce.repository;
+
+import com.codingmart.ecommerce.entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Composable JPA criteria for the browse endpoint's MySQL fallback.
+ * Each factory returns null when its parameter is absent, which
+ * Specification.where/and treat as "no constraint".
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> inCategory(Long categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("category").get("categoryId"), categoryId);
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal min) {
+        if (min == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("productPrice"), min);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal max) {
+        if (max == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("productPrice"), max);
+    }
+
+    /** Degraded keyword match: case-insensitive substring of the product name. */
+    public static Specification<Product> nameContains(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + keyword.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("productName")), pattern, '\\');
+    }
+}
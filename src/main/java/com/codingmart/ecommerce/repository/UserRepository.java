@@ -19,4 +19,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Returns Optional because the user may not exist.
      */
     Optional<User> findByUserEmail(String user_email);
+
+    /**
+     * Whether an account with this email exists, without loading it.
+     * Used by signup; the unique constraint on user_email is the real guard.
+     */
+    boolean existsByUserEmail(String user_email);
 }
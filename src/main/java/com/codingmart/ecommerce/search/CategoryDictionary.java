@@ -0,0 +1,245 @@
+package com.codingmart.ecommerce.search;
+
+import com.codingmart.ecommerce.entity.Category;
+import com.codingmart.ecommerce.event.CategoriesChangedEvent;
+import com.codingmart.ecommerce.service.CategorySnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory dictionary of category names and their synonyms.
+ *
+ * Lets "books under 500" become a term filter on categoryName.keyword = "Books"
+ * plus an empty keyword, instead of a fuzzy multi_match that has to find the
+ * category through scoring. The dictionary is a word-level trie, so multi-word
+ * names ("home decor") are matched greedily (longest match wins).
+ *
+ * Each name is also entered in its other number (singular or plural of the
+ * last word) when a regular English rule gives one; irregular forms and any
+ * other wording belong in search.category-synonyms.
+ *
+ * Built from {@link CategorySnapshot} whenever it (re)loads and publishes a
+ * {@link CategoriesChangedEvent}, so it needs no database access of its own. The trie is swapped atomically,
+ * so lookups never lock.
+ */
+@Component
+public class CategoryDictionary {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryDictionary.class);
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private SearchProperties searchProperties;
+
+    private volatile Node root = new Node();
+
+    @EventListener(CategoriesChangedEvent.class)
+    public void refresh() {
+        try {
+            rebuild(categorySnapshot.all());
+        } catch (RuntimeException e) {
+            // Keep serving the previous dictionary; search still works without it.
+            logger.warn("Could not rebuild category dictionary: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the dictionary with one built from the given categories.
+     */
+    public void rebuild(List<Category> categories) {
+        Map<String, List<String>> synonyms = searchProperties.getCategorySynonyms();
+
+        Node fresh = new Node();
+        // Names (and their other number) first, synonyms second: the first
+        // writer of a phrase wins, so a real name is never shadowed by another
+        // category's synonym ("kitchen" for Home & Kitchen vs a "Kitchen" category).
+        for (Category category : categories) {
+            String name = category.getCategoryName();
+            if (name == null || name.isBlank()) {
+                continue;
+            }
+            String normalized = normalizePhrase(name);
+            add(fresh, normalized, name);
+            // The other number of the last word: "Books" → "book", "Watch" → "watches"
+            int lastSpace = normalized.lastIndexOf(' ');
+            String otherForm = otherNumber(normalized.substring(lastSpace + 1));
+            if (otherForm != null) {
+                add(fresh, normalized.substring(0, lastSpace + 1) + otherForm, name);
+            }
+        }
+        for (Category category : categories) {
+            String name = category.getCategoryName();
+            if (name == null || name.isBlank()) {
+                continue;
+            }
+            // Synonym keys are slugs: "Toys & Games" → "toys-games"
+            for (String synonym : synonyms.getOrDefault(normalizePhrase(name).replace(' ', '-'), List.of())) {
+                add(fresh, normalizePhrase(synonym), name);
+            }
+        }
+        root = fresh;
+        logger.debug("Category dictionary rebuilt with {} categories", categories.size());
+    }
+
+    /**
+     * Finds the first (longest) category phrase in the query keyword and moves
+     * it into the category constraint. Queries that are already scoped, or have
+     * no keyword, are returned unchanged.
+     */
+    public SearchQuery resolve(SearchQuery query) {
+        if (!query.hasKeyword() || query.hasCategory()) {
+            return query;
+        }
+        Node trie = root;
+        if (trie.children.isEmpty()) {
+            return query;
+        }
+
+        // SearchQueryParser joins keyword tokens with single spaces
+        String[] words = query.getKeyword().split(" ");
+        for (int i = 0; i < words.length; i++) {
+            Node node = trie;
+            String category = null;
+            int matchEnd = -1;
+            for (int j = i; j < words.length; j++) {
+                String word = normalizeWord(words[j]);
+                if (word.isEmpty() && j > i) {
+                    continue; // "home & kitchen"
+                }
+                node = node.children.get(word);
+                if (node == null) {
+                    break;
+                }
+                if (node.category != null) {
+                    category = node.category;
+                    matchEnd = j + 1;
+                }
+            }
+            if (category != null) {
+                StringBuilder rest = new StringBuilder();
+                for (int k = 0; k < words.length; k++) {
+                    if (k >= i && k < matchEnd) {
+                        continue;
+                    }
+                    if (rest.length() > 0) {
+                        rest.append(' ');
+                    }
+                    rest.append(words[k]);
+                }
+                return query.withCategory(category, rest.length() == 0 ? null : rest.toString());
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Singular of a plural word or plural of a singular one, by the regular
+     * English rules only; null when no rule applies with confidence. Never
+     * returns a fragment such as "sho" for "shoes": an unknown form is left
+     * to the synonym list rather than guessed.
+     */
+    static String otherNumber(String word) {
+        int n = word.length();
+        if (n < 3 || !isLetters(word)) {
+            return null;
+        }
+        if (word.endsWith("ies") && n > 4) {
+            return word.substring(0, n - 3) + "y";                   // accessories → accessory
+        }
+        if (endsWithAny(word, "ches", "shes", "sses", "xes", "zzes")) {
+            return word.substring(0, n - 2);                         // watches → watch, boxes → box
+        }
+        if (word.endsWith("s")) {
+            if (endsWithAny(word, "ss", "us", "is", "ics")) {
+                return null;                                         // dress, bonus, electronics
+            }
+            return word.substring(0, n - 1);                         // books → book, shoes → shoe
+        }
+        if (word.endsWith("y") && !isVowel(word.charAt(n - 2))) {
+            return word.substring(0, n - 1) + "ies";                 // battery → batteries
+        }
+        if (endsWithAny(word, "ch", "sh", "x", "z")) {
+            return word + "es";                                      // watch → watches
+        }
+        return word + "s";                                           // toy → toys
+    }
+
+    private static boolean endsWithAny(String word, String... suffixes) {
+        for (String suffix : suffixes) {
+            if (word.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLetters(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVowel(char c) {
+        return "aeiou".indexOf(c) >= 0;
+    }
+
+    private static void add(Node trie, String phrase, String category) {
+        if (phrase.isEmpty()) {
+            return;
+        }
+        Node node = trie;
+        for (String word : phrase.split(" ")) {
+            node = node.children.computeIfAbsent(word, w -> new Node());
+        }
+        // First writer wins; rebuild adds every name before any synonym
+        if (node.category == null) {
+            node.category = category;
+        }
+    }
+
+    private static String normalizePhrase(String phrase) {
+        StringBuilder sb = new StringBuilder(phrase.length());
+        for (String word : phrase.trim().split("\\s+")) {
+            String normalized = normalizeWord(word);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(normalized);
+        }
+        return sb.toString();
+    }
+
+    /** Lower-cases and trims surrounding punctuation: "Books," → "books". */
+    private static String normalizeWord(String word) {
+        int s = 0;
+        int e = word.length();
+        while (s < e && !Character.isLetterOrDigit(word.charAt(s))) {
+            s++;
+        }
+        while (e > s && !Character.isLetterOrDigit(word.charAt(e - 1))) {
+            e--;
+        }
+        return word.substring(s, e).toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private String category;
+    }
+}
@@ -0,0 +1,156 @@
+package com.codingmart.ecommerce.search;
+
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker used by {@link ElasticsearchGuard}.
+ *
+ * CLOSED: calls flow; the last window-size outcomes are kept in a ring. Once
+ * at least minimum-calls are recorded, the breaker OPENs when the failure
+ * rate or the slow-call rate crosses its threshold.
+ * OPEN: calls are rejected without touching ES until open-duration passes.
+ * HALF_OPEN: half-open-calls trial calls are let through; all succeeding
+ * (and not slow) closes the breaker, any failure re-opens it.
+ *
+ * All state lives behind this object's monitor — the critical sections are a
+ * few array writes, far cheaper than the network call they guard.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte OK = 0;
+    private static final byte SLOW = 1;
+    private static final byte FAILED = 2;
+
+    private final SearchProperties.Breaker settings;
+    private final BiConsumer<State, State> onTransition;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final byte[] window;
+    private int windowPosition;
+    private int windowCount;
+    private int failures;
+    private int slowCalls;
+
+    CircuitBreaker(SearchProperties.Breaker settings, BiConsumer<State, State> onTransition) {
+        this(settings, onTransition, System::nanoTime);
+    }
+
+    /** @param nanoClock source of System.nanoTime()-style readings for open-duration */
+    CircuitBreaker(SearchProperties.Breaker settings, BiConsumer<State, State> onTransition, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.onTransition = onTransition;
+        this.nanoClock = nanoClock;
+        this.window = new byte[Math.max(1, settings.getWindowSize())];
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /** Whether a call may go to ES now; in HALF_OPEN this consumes a trial permit. */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < settings.getOpenDuration().toNanos()) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+            halfOpenPermits = settings.getHalfOpenCalls();
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess(long elapsedNanos) {
+        boolean slow = elapsedNanos > settings.getSlowCallThreshold().toNanos();
+        if (state == State.HALF_OPEN) {
+            if (slow) {
+                open();
+            } else if (++halfOpenSuccesses >= settings.getHalfOpenCalls()) {
+                resetWindow();
+                transition(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(slow ? SLOW : OK);
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(FAILED);
+        }
+    }
+
+    /**
+     * Ends a call whose outcome says nothing about ES health (e.g. a 400 for
+     * a bad query): nothing is recorded, and in HALF_OPEN its trial permit
+     * is handed back so another call can take it.
+     */
+    synchronized void release() {
+        if (state == State.HALF_OPEN && halfOpenPermits < settings.getHalfOpenCalls()) {
+            halfOpenPermits++;
+        }
+    }
+
+    private void record(byte outcome) {
+        if (windowCount == window.length) {
+            byte evicted = window[windowPosition];
+            if (evicted == FAILED) {
+                failures--;
+            } else if (evicted == SLOW) {
+                slowCalls--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowPosition] = outcome;
+        windowPosition = (windowPosition + 1) % window.length;
+        if (outcome == FAILED) {
+            failures++;
+        } else if (outcome == SLOW) {
+            slowCalls++;
+        }
+
+        if (windowCount >= settings.getMinimumCalls()
+                && (failures * 100 >= settings.getFailureRateThreshold() * windowCount
+                        || slowCalls * 100 >= settings.getSlowCallRateThreshold() * windowCount)) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAtNanos = nanoClock.getAsLong();
+        resetWindow();
+        transition(State.OPEN);
+    }
+
+    private void resetWindow() {
+        windowPosition = 0;
+        windowCount = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        if (from != to) {
+            onTransition.accept(from, to);
+        }
+    }
+}
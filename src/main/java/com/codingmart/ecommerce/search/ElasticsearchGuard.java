@@ -0,0 +1,307 @@
+package com.codingmart.ecommerce.search;
+
+import com.codingmart.ecommerce.exception.ElasticsearchUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.elasticsearch.client.ResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Resilience layer for Elasticsearch search calls.
+ *
+ * Each call runs on a small bounded pool and the request thread waits at most
+ * until the request's deadline, so a slow ES node costs a Tomcat thread
+ * search.guard.timeout at worst instead of the socket timeout. On top of that:
+ * - a {@link CircuitBreaker} stops sending calls while ES is failing or slow;
+ * - a call still running after the recent p95 latency is hedged with an
+ *   identical second call, and whichever succeeds first wins (searches are
+ *   read-only, so this is safe).
+ * Every refusal surfaces as {@link ElasticsearchUnavailableException}, which
+ * ProductService turns into a degraded answer from {@link LocalProductIndex}.
+ *
+ * Giving up on a call does not stop it. cancel(true) on a CompletableFuture
+ * only completes the future; it never interrupts the thread running the
+ * supplier, so an abandoned (timed-out or losing hedged) request keeps its
+ * pool thread and its ES connection until ES answers or the client's
+ * spring.elasticsearch.socket-timeout fires. The pool bound is what keeps
+ * those from piling up: once it is full, new calls are rejected.
+ *
+ * Only searches go through here — the bulk sync is long-running by design.
+ */
+@Component
+public class ElasticsearchGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ElasticsearchGuard.class);
+
+    /** Successful latencies kept for the hedge-delay percentile. */
+    private static final int LATENCY_SAMPLES = 256;
+
+    /** Samples needed before hedging starts, and how often the p95 is recomputed. */
+    private static final int HEDGE_WARMUP = 64;
+
+    @Autowired
+    private SearchProperties searchProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private CircuitBreaker breaker;
+
+    /** Clock the breaker measures open-duration with; replaced in tests. */
+    private LongSupplier breakerClock = System::nanoTime;
+
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private final AtomicInteger latencyCursor = new AtomicInteger();
+    private volatile long hedgeDelayNanos;
+
+    // Tag values are fixed enums, never user input.
+    private Counter successCounter;
+    private Counter failureCounter;
+    private Counter clientErrorCounter;
+    private Counter timeoutCounter;
+    private Counter rejectedCounter;
+    private Counter shortCircuitedCounter;
+    private Counter hedgedCounter;
+    private final Map<CircuitBreaker.State, Counter> transitionCounters = new EnumMap<>(CircuitBreaker.State.class);
+
+    @PostConstruct
+    private void init() {
+        SearchProperties.Guard settings = searchProperties.getGuard();
+        AtomicInteger threadId = new AtomicInteger();
+        executor = new ThreadPoolExecutor(settings.getPoolSize(), settings.getPoolSize(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(settings.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "es-guard-" + threadId.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            transitionCounters.put(state, Counter.builder("search.elasticsearch.circuit.transitions")
+                    .description("Circuit breaker state changes, by target state")
+                    .tag("to", state.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        breaker = new CircuitBreaker(settings.getBreaker(), (from, to) -> {
+            transitionCounters.get(to).increment();
+            logger.warn("Elasticsearch circuit breaker {} -> {}", from, to);
+        }, breakerClock);
+        Gauge.builder("search.elasticsearch.circuit.state", breaker, b -> b.state().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+
+        successCounter = callCounter("success");
+        failureCounter = callCounter("failure");
+        clientErrorCounter = callCounter("client_error");
+        timeoutCounter = callCounter("timeout");
+        rejectedCounter = callCounter("rejected");
+        shortCircuitedCounter = callCounter("short_circuited");
+        hedgedCounter = Counter.builder("search.elasticsearch.hedged")
+                .description("Searches that sent a second, hedged request")
+                .register(meterRegistry);
+    }
+
+    private Counter callCounter(String outcome) {
+        return Counter.builder("search.elasticsearch.calls")
+                .description("Guarded Elasticsearch calls by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Deadline for a search request starting now, as a System.nanoTime() value. */
+    public long newDeadline() {
+        return System.nanoTime() + searchProperties.getGuard().getTimeout().toNanos();
+    }
+
+    /**
+     * Runs a read-only ES call under the breaker, the deadline and hedging.
+     * Exceptions thrown by the call itself are rethrown unchanged; only those
+     * that say ES is unhealthy count as breaker failures (see
+     * {@link #isElasticsearchFailure}).
+     */
+    public <T> T call(Supplier<T> action, long deadlineNanos) {
+        if (!breaker.tryAcquire()) {
+            shortCircuitedCounter.increment();
+            throw new ElasticsearchUnavailableException("circuit breaker is open");
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(action, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            breaker.onFailure();
+            throw new ElasticsearchUnavailableException("too many concurrent searches");
+        }
+
+        try {
+            T result = await(primary, action, deadlineNanos);
+            long elapsed = System.nanoTime() - start;
+            recordLatency(elapsed);
+            breaker.onSuccess(elapsed);
+            successCounter.increment();
+            return result;
+        } catch (TimeoutException e) {
+            // Marks the future done; the ES request itself runs on (see class doc)
+            primary.cancel(true);
+            timeoutCounter.increment();
+            breaker.onFailure();
+            throw new ElasticsearchUnavailableException("no answer within the search deadline");
+        } catch (ExecutionException e) {
+            if (isElasticsearchFailure(e.getCause())) {
+                failureCounter.increment();
+                breaker.onFailure();
+            } else {
+                // ES answered, the request was wrong (e.g. 400): says nothing about ES health
+                clientErrorCounter.increment();
+                breaker.release();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ElasticsearchUnavailableException(String.valueOf(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.cancel(true);
+            // Our thread was interrupted, which says nothing about ES; give a
+            // half-open trial permit back rather than leaking it
+            breaker.release();
+            throw new ElasticsearchUnavailableException("interrupted while waiting for Elasticsearch");
+        }
+    }
+
+    /**
+     * Whether a failed call counts against the breaker: transport errors,
+     * timeouts, 5xx and 429 do; other 4xx answers and errors raised by the
+     * client itself (e.g. mapping the response) do not.
+     */
+    static boolean isElasticsearchFailure(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            Integer status = statusCode(t);
+            if (status != null) {
+                return status >= 500 || status == 429;
+            }
+            if (t instanceof IOException
+                    || t instanceof DataAccessResourceFailureException
+                    || t instanceof TransientDataAccessException
+                    || t instanceof ElasticsearchUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Integer statusCode(Throwable t) {
+        if (t instanceof UncategorizedElasticsearchException e) {
+            return e.getStatusCode();
+        }
+        if (t instanceof co.elastic.clients.elasticsearch._types.ElasticsearchException e) {
+            return e.status();
+        }
+        if (t instanceof ResponseException e) {
+            return e.getResponse().getStatusLine().getStatusCode();
+        }
+        return null;
+    }
+
+    private <T> T await(CompletableFuture<T> primary, Supplier<T> action, long deadlineNanos)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        long hedgeDelay = hedgeDelayNanos;
+        boolean hedge = searchProperties.getGuard().isHedgeEnabled()
+                && hedgeDelay > 0
+                && hedgeDelay < deadlineNanos - System.nanoTime()
+                && breaker.state() == CircuitBreaker.State.CLOSED;
+        if (!hedge) {
+            return primary.get(remaining(deadlineNanos), TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            return primary.get(hedgeDelay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException slow) {
+            CompletableFuture<T> second;
+            try {
+                second = CompletableFuture.supplyAsync(action, executor);
+            } catch (RejectedExecutionException e) {
+                // No spare capacity to hedge — just keep waiting on the first call
+                return primary.get(remaining(deadlineNanos), TimeUnit.NANOSECONDS);
+            }
+            hedgedCounter.increment();
+            // The slower request is not stopped; it runs to completion on its pool thread
+            return firstSuccess(primary, second).get(remaining(deadlineNanos), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Completes with whichever call succeeds first, and fails only once both
+     * have failed (with the later error). anyOf would fail as soon as the
+     * primary does, which is the very case a hedge is meant to cover.
+     */
+    private static <T> CompletableFuture<T> firstSuccess(CompletableFuture<T> primary, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<T, Throwable> settle = (value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (failures.incrementAndGet() == 2) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            }
+        };
+        primary.whenComplete(settle);
+        second.whenComplete(settle);
+        return result;
+    }
+
+    private static long remaining(long deadlineNanos) {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * Keeps a ring of recent successful latencies and refreshes the hedge delay
+     * (their p95, floored at hedge-min-delay) every HEDGE_WARMUP samples.
+     */
+    private void recordLatency(long nanos) {
+        int n = latencyCursor.getAndIncrement();
+        latencies[Math.floorMod(n, LATENCY_SAMPLES)] = nanos;
+        if (n + 1 >= HEDGE_WARMUP && (n + 1) % HEDGE_WARMUP == 0) {
+            long[] sorted = Arrays.copyOf(latencies, Math.min(n + 1, LATENCY_SAMPLES));
+            Arrays.sort(sorted);
+            long p95 = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+            hedgeDelayNanos = Math.max(p95, searchProperties.getGuard().getHedgeMinDelay().toNanos());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.codingmart.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Approximate top-K counter: a Count-Min sketch for the counts of every key
+ * plus a small candidate table for the keys that may be in the top K.
+ *
+ * Recording is lock-free: depth atomic increments in the sketch and a
+ * ConcurrentHashMap lookup. Once the table is full, a key enters it only if
+ * its estimate exceeds the smallest count still kept, so one-off queries
+ * never allocate, even when that count is 1 (long-tail traffic). When the
+ * table has grown to twice K, whichever thread gets the prune lock (tryLock,
+ * nobody waits) cuts it back to exactly the K largest with a bounded
+ * min-heap, so prunes happen at most once per K admissions and the table
+ * never holds much more than 2K entries.
+ *
+ * Count-Min only over-estimates, and only by collisions: with width w the
+ * error is at most about total/w with high probability.
+ */
+final class HeavyHitters {
+
+    private final int capacity;
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counts;
+    private final ConcurrentHashMap<String, Candidate> candidates = new ConcurrentHashMap<>();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+
+    /** Smallest count kept by the last prune; a new key must beat it to be tracked. */
+    private volatile long threshold;
+
+    HeavyHitters(int capacity, int width, int depth) {
+        this.capacity = capacity;
+        this.depth = depth;
+        int w = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+        this.mask = w - 1;
+        this.counts = new AtomicLongArray(w * depth);
+    }
+
+    /**
+     * Counts one occurrence of the key (of the given 64-bit hash) and returns
+     * its candidate entry, or null when it is not (yet) a heavy hitter.
+     */
+    Candidate add(String key, long hash) {
+        return add(key, hash, 1);
+    }
+
+    Candidate add(String key, long hash, long amount) {
+        long estimate = Long.MAX_VALUE;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int width = mask + 1;
+        for (int row = 0; row < depth; row++) {
+            int slot = row * width + ((h1 + row * h2) & mask);
+            estimate = Math.min(estimate, counts.addAndGet(slot, amount));
+        }
+
+        Candidate candidate = candidates.get(key);
+        if (candidate == null) {
+            if (estimate <= threshold && candidates.size() >= capacity) {
+                return null;
+            }
+            candidate = candidates.computeIfAbsent(key, Candidate::new);
+        }
+        candidate.count = estimate;
+
+        if (candidates.size() > 2 * capacity && pruneLock.tryLock()) {
+            try {
+                prune();
+            } finally {
+                pruneLock.unlock();
+            }
+        }
+        return candidate;
+    }
+
+    /** Up to limit candidates, largest count first. */
+    List<Candidate> top(int limit) {
+        List<Candidate> all = new ArrayList<>(candidates.values());
+        all.sort(Comparator.comparingLong((Candidate c) -> c.count).reversed());
+        return all.size() > limit ? all.subList(0, limit) : all;
+    }
+
+    /** Halves every count so old traffic fades out. */
+    void decay() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.getAndUpdate(i, c -> c >> 1);
+        }
+        for (Candidate candidate : candidates.values()) {
+            candidate.count >>= 1;
+        }
+        threshold >>= 1;
+        pruneLock.lock();
+        try {
+            candidates.values().removeIf(c -> c.count == 0);
+        } finally {
+            pruneLock.unlock();
+        }
+    }
+
+    /**
+     * Cuts the table back to exactly the capacity largest candidates. Only
+     * the evicted entries are removed, so keys admitted meanwhile survive.
+     */
+    private void prune() {
+        PriorityQueue<Candidate> keep = new PriorityQueue<>(capacity + 1, Comparator.comparingLong(c -> c.count));
+        List<Candidate> evicted = new ArrayList<>();
+        for (Candidate candidate : candidates.values()) {
+            keep.add(candidate);
+            if (keep.size() > capacity) {
+                evicted.add(keep.poll());
+            }
+        }
+        for (Candidate candidate : evicted) {
+            candidates.remove(candidate.key, candidate);
+        }
+        threshold = keep.isEmpty() ? 0 : keep.peek().count;
+    }
+
+    /** 64-bit FNV-1a over the chars, finished with a SplitMix64 mix. */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * A tracked key. count is the sketch estimate as of its last occurrence;
+     * the remaining fields are exact since the key became a candidate.
+     */
+    static final class Candidate {
+        final String key;
+        volatile long count;
+        /** One raw query text that normalizes to key, used to replay it. */
+        volatile String sample;
+        volatile SearchSort sort;
+        final LongAdder searches = new LongAdder();
+        final LongAdder zeroResults = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        Candidate(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,641 @@
+package com.codingmart.ecommerce.search;
+
+import com.codingmart.ecommerce.document.ProductDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Degraded-mode, in-JVM inverted index of the catalog.
+ *
+ * Built from the same ProductDocument list the sync sends to Elasticsearch
+ * and used by ProductService when ES is unavailable, so /api/products/search
+ * keeps answering (keyword + category + price bounds + price sort) instead of
+ * returning 500.
+ *
+ * Layout is primitive and columnar to keep memory bounded — roughly
+ * 100-150 MB per million products with typical names:
+ * - postings: term → sorted int[] of document ordinals (name and description)
+ * - prices: long[] paise per ordinal, plus ordinals pre-sorted by price
+ * - creation times: long[] epoch millis per ordinal (for "newest")
+ * - categories: one BitSet of ordinals per category
+ * - names: one UTF-8 byte[] with offsets; image URLs de-duplicated
+ * Descriptions are indexed but not stored, so degraded hits have none.
+ *
+ * Snapshots are immutable and swapped atomically. Writes between syncs go
+ * into a small overlay map that overrides the snapshot by product id. The
+ * overlay is capped at search.local-index.max-overlay documents (it is
+ * scanned in full by every degraded search); writes past the cap are not
+ * kept and the index is marked stale until the next sync rebuilds it.
+ */
+@Component
+public class LocalProductIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalProductIndex.class);
+
+    /** Same deep-paging limit as the ES index (max_result_window). */
+    private static final int MAX_WINDOW = 10_000;
+
+    /** Ordinals are packed next to prices in a long when sorting. */
+    private static final int MAX_ORDINAL_BITS = 24;
+
+    private static final double NAME_WEIGHT = 3;
+    private static final double CATEGORY_WEIGHT = 2;
+    private static final double DESCRIPTION_WEIGHT = 1;
+
+    @Autowired
+    private SearchProperties searchProperties;
+
+    private volatile Snapshot snapshot;
+
+    private final Map<Long, ProductDocument> overlay = new ConcurrentHashMap<>();
+
+    /** Set when writes were dropped because the overlay was full; cleared by a rebuild. */
+    private volatile boolean stale;
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /** Whether products written since the last sync are missing from the index. */
+    public boolean isStale() {
+        return stale;
+    }
+
+    public int size() {
+        Snapshot s = snapshot;
+        return s == null ? 0 : s.size;
+    }
+
+    /**
+     * Replaces the index with one built from the given documents (the sync's
+     * convertToDocument output).
+     */
+    public void rebuild(List<ProductDocument> documents) {
+        SearchProperties.LocalIndex settings = searchProperties.getLocalIndex();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        int limit = Math.min(settings.getMaxDocuments(), 1 << MAX_ORDINAL_BITS);
+        if (documents.size() > limit) {
+            logger.warn("Local product index disabled: {} documents exceeds the limit of {}",
+                    documents.size(), limit);
+            snapshot = null;
+            overlay.clear();
+            stale = false;
+            return;
+        }
+        long start = System.nanoTime();
+        Snapshot built = Snapshot.build(documents);
+        snapshot = built;
+        overlay.clear();
+        stale = false;
+        logger.info("Local product index built: {} documents, {} terms in {} ms",
+                built.size, built.namePostings.size() + built.descriptionPostings.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Makes written products visible to degraded search before the next sync.
+     * A batch that would take the overlay past max-overlay is dropped as a
+     * whole and the index marked stale: a large import is left to the next
+     * sync instead of being held, descriptions and all, on the heap.
+     */
+    public void upsertAll(List<ProductDocument> documents) {
+        if (snapshot == null || stale) {
+            return;
+        }
+        if (overlay.size() + documents.size() > searchProperties.getLocalIndex().getMaxOverlay()) {
+            stale = true;
+            logger.warn("Local product index overlay is full ({} documents); products written from now on "
+                    + "are missing from degraded search until the next sync", overlay.size());
+            return;
+        }
+        for (ProductDocument document : documents) {
+            overlay.put(Long.parseLong(document.getId()), document);
+        }
+    }
+
+    /**
+     * Same semantics as the ES query: OR over keyword terms scored
+     * name^3 / category^2 / description^1, with category and price bounds as
+     * exact filters, ordered by score or by the query's price sort.
+     */
+    public Page<ProductDocument> search(SearchQuery query, Pageable pageable) {
+        Snapshot s = snapshot;
+        if (s == null) {
+            throw new IllegalStateException("Local product index has not been built");
+        }
+        int window = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), MAX_WINDOW);
+        TopK top = new TopK(window);
+        Filter filter = new Filter(query, s);
+        List<String> terms = query.hasKeyword() ? terms(query.getKeyword(), false) : List.of();
+        boolean checkOverlay = !overlay.isEmpty();
+
+        long total = 0;
+        if (!terms.isEmpty()) {
+            total += s.scoreTerms(terms, filter, query.getSort(), top, checkOverlay ? overlay : null);
+        } else if (!filter.matchesNothing) {
+            // No keyword: walk the price-ordered ordinals inside the price bounds
+            int from = s.firstAtOrAbove(filter.minPaise);
+            for (int i = from; i < s.size; i++) {
+                int doc = s.byPrice[i];
+                if (s.pricePaise[doc] > filter.maxPaise) {
+                    break;
+                }
+                if (!filter.acceptsCategory(s, doc)
+                        || (checkOverlay && overlay.containsKey(s.productIds[doc]))) {
+                    continue;
+                }
+                total++;
+                top.offer(sortKey(query.getSort(), 0, s.pricePaise[doc], s.createdAtMillis[doc], i), doc);
+            }
+        }
+
+        List<ProductDocument> pending = new ArrayList<>();
+        if (checkOverlay) {
+            total += scoreOverlay(terms, query, top, pending);
+        }
+
+        int[] ranked = top.drainBestFirst();
+        List<ProductDocument> content = new ArrayList<>(pageable.getPageSize());
+        for (int i = (int) pageable.getOffset(); i < ranked.length; i++) {
+            int doc = ranked[i];
+            content.add(doc >= 0 ? s.toDocument(doc) : pending.get(-doc - 1));
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private long scoreOverlay(List<String> terms, SearchQuery query, TopK top, List<ProductDocument> pending) {
+        long matched = 0;
+        long minPaise = query.getMinPrice() != null ? toPaise(query.getMinPrice()) : Long.MIN_VALUE;
+        long maxPaise = query.getMaxPrice() != null ? toPaise(query.getMaxPrice()) : Long.MAX_VALUE;
+        for (ProductDocument doc : overlay.values()) {
+            long price = doc.getProductPrice() != null ? toPaise(doc.getProductPrice()) : 0;
+            if (price < minPaise || price > maxPaise) {
+                continue;
+            }
+            if (query.hasCategory() && !query.getCategory().equals(doc.getCategoryName())) {
+                continue;
+            }
+            double score = 0;
+            if (!terms.isEmpty()) {
+                score = NAME_WEIGHT * overlap(terms, doc.getProductName())
+                        + CATEGORY_WEIGHT * overlap(terms, doc.getCategoryName())
+                        + DESCRIPTION_WEIGHT * overlap(terms, doc.getProductDescription());
+                if (score == 0) {
+                    continue;
+                }
+            }
+            matched++;
+            pending.add(doc);
+            long createdAt = doc.getCreatedAt() != null ? doc.getCreatedAt().toEpochMilli() : 0;
+            top.offer(sortKey(query.getSort(), score, price, createdAt, Integer.MAX_VALUE), -pending.size());
+        }
+        return matched;
+    }
+
+    private static int overlap(List<String> queryTerms, String text) {
+        if (text == null) {
+            return 0;
+        }
+        List<String> docTerms = terms(text, false);
+        int hits = 0;
+        for (String term : queryTerms) {
+            if (docTerms.contains(term)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    /** Larger is better. Price ordering falls back to price-rank for keyword-less walks. */
+    private static double sortKey(SearchSort sort, double score, long pricePaise, long createdAtMillis,
+            int priceRank) {
+        switch (sort) {
+            case PRICE_ASC:
+                return -pricePaise;
+            case PRICE_DESC:
+                return pricePaise;
+            case NEWEST:
+                return createdAtMillis;
+            default:
+                return score != 0 ? score : -priceRank;
+        }
+    }
+
+    private static long toPaise(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    /**
+     * Lower-cased letter/digit runs with a light plural strip ("phones" →
+     * "phone"), applied identically at build and query time.
+     */
+    static List<String> terms(String text, boolean requireLetter) {
+        List<String> out = new ArrayList<>();
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int s = i;
+            boolean letter = false;
+            while (i < n && Character.isLetterOrDigit(text.charAt(i))) {
+                letter |= Character.isLetter(text.charAt(i));
+                i++;
+            }
+            if (i > s && (letter || !requireLetter)) {
+                String term = text.substring(s, i).toLowerCase(Locale.ROOT);
+                if (term.length() > 3 && term.endsWith("s") && !term.endsWith("ss")) {
+                    term = term.substring(0, term.length() - 1);
+                }
+                out.add(term);
+            }
+        }
+        return out;
+    }
+
+    // ─── Query-time filter ────────────────────────────────────────────────
+
+    private static final class Filter {
+        final long minPaise;
+        final long maxPaise;
+        final int category; // -1: any
+        final boolean matchesNothing;
+
+        Filter(SearchQuery query, Snapshot s) {
+            minPaise = query.getMinPrice() != null ? toPaise(query.getMinPrice()) : Long.MIN_VALUE;
+            maxPaise = query.getMaxPrice() != null ? toPaise(query.getMaxPrice()) : Long.MAX_VALUE;
+            Integer ordinal = query.hasCategory() ? s.categoryIndex.get(query.getCategory()) : null;
+            category = ordinal != null ? ordinal : -1;
+            matchesNothing = query.hasCategory() && ordinal == null;
+        }
+
+        boolean acceptsCategory(Snapshot s, int doc) {
+            return category < 0 || s.categoryOrdinal[doc] == category;
+        }
+
+        boolean accepts(Snapshot s, int doc) {
+            long price = s.pricePaise[doc];
+            return !matchesNothing && price >= minPaise && price <= maxPaise && acceptsCategory(s, doc);
+        }
+    }
+
+    // ─── Immutable snapshot ───────────────────────────────────────────────
+
+    private static final class Snapshot {
+        int size;
+        long[] productIds;
+        long[] pricePaise;
+        long[] createdAtMillis;
+        int[] byPrice;
+        int[] categoryOrdinal;
+        String[] categories;
+        Map<String, Integer> categoryIndex;
+        BitSet[] categoryDocs;
+        Map<String, int[]> categoryTerms;
+        byte[] nameBytes;
+        int[] nameOffsets;
+        int[] imageRef;
+        String[] images;
+        Map<String, int[]> namePostings;
+        Map<String, int[]> descriptionPostings;
+
+        static Snapshot build(List<ProductDocument> documents) {
+            Snapshot s = new Snapshot();
+            int n = documents.size();
+            s.size = n;
+            s.productIds = new long[n];
+            s.pricePaise = new long[n];
+            s.createdAtMillis = new long[n];
+            s.categoryOrdinal = new int[n];
+            s.imageRef = new int[n];
+            s.nameOffsets = new int[n + 1];
+
+            Map<String, Integer> categoryIndex = new HashMap<>();
+            List<String> categories = new ArrayList<>();
+            List<BitSet> categoryDocs = new ArrayList<>();
+            Map<String, Integer> imageIndex = new HashMap<>();
+            List<String> images = new ArrayList<>();
+            Map<String, IntList> names = new HashMap<>();
+            Map<String, IntList> descriptions = new HashMap<>();
+            byte[] nameBytes = new byte[Math.max(16, n * 32)];
+            int nameLength = 0;
+
+            for (int doc = 0; doc < n; doc++) {
+                ProductDocument d = documents.get(doc);
+                s.productIds[doc] = Long.parseLong(d.getId());
+                s.pricePaise[doc] = d.getProductPrice() != null ? toPaise(d.getProductPrice()) : 0;
+                s.createdAtMillis[doc] = d.getCreatedAt() != null ? d.getCreatedAt().toEpochMilli() : 0;
+
+                String category = d.getCategoryName();
+                if (category == null) {
+                    s.categoryOrdinal[doc] = -1;
+                } else {
+                    Integer ordinal = categoryIndex.get(category);
+                    if (ordinal == null) {
+                        ordinal = categories.size();
+                        categoryIndex.put(category, ordinal);
+                        categories.add(category);
+                        categoryDocs.add(new BitSet());
+                    }
+                    s.categoryOrdinal[doc] = ordinal;
+                    categoryDocs.get(ordinal).set(doc);
+                }
+
+                String image = d.getImageUrl();
+                if (image == null) {
+                    s.imageRef[doc] = -1;
+                } else {
+                    s.imageRef[doc] = imageIndex.computeIfAbsent(image, key -> {
+                        images.add(key);
+                        return images.size() - 1;
+                    });
+                }
+
+                byte[] name = d.getProductName() != null
+                        ? d.getProductName().getBytes(StandardCharsets.UTF_8)
+                        : new byte[0];
+                if (nameLength + name.length > nameBytes.length) {
+                    nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytes.length * 2, nameLength + name.length));
+                }
+                System.arraycopy(name, 0, nameBytes, nameLength, name.length);
+                nameLength += name.length;
+                s.nameOffsets[doc + 1] = nameLength;
+
+                addPostings(names, d.getProductName(), doc, false);
+                addPostings(descriptions, d.getProductDescription(), doc, true);
+            }
+
+            s.nameBytes = Arrays.copyOf(nameBytes, nameLength);
+            s.categories = categories.toArray(new String[0]);
+            s.categoryIndex = categoryIndex;
+            s.categoryDocs = categoryDocs.toArray(new BitSet[0]);
+            s.images = images.toArray(new String[0]);
+            s.namePostings = freeze(names);
+            s.descriptionPostings = freeze(descriptions);
+
+            Map<String, IntList> categoryTerms = new HashMap<>();
+            for (int c = 0; c < s.categories.length; c++) {
+                addPostings(categoryTerms, s.categories[c], c, false);
+            }
+            s.categoryTerms = freeze(categoryTerms);
+
+            // Ordinals sorted by price: pack (price, ordinal) into one long and sort primitives
+            long[] packed = new long[n];
+            for (int doc = 0; doc < n; doc++) {
+                packed[doc] = (Math.max(0, s.pricePaise[doc]) << MAX_ORDINAL_BITS) | doc;
+            }
+            Arrays.sort(packed);
+            s.byPrice = new int[n];
+            long mask = (1L << MAX_ORDINAL_BITS) - 1;
+            for (int i = 0; i < n; i++) {
+                s.byPrice[i] = (int) (packed[i] & mask);
+            }
+            return s;
+        }
+
+        private static void addPostings(Map<String, IntList> postings, String text, int doc, boolean requireLetter) {
+            if (text == null) {
+                return;
+            }
+            for (String term : terms(text, requireLetter)) {
+                postings.computeIfAbsent(term, t -> new IntList()).addIfLast(doc);
+            }
+        }
+
+        private static Map<String, int[]> freeze(Map<String, IntList> lists) {
+            Map<String, int[]> frozen = new HashMap<>(lists.size() * 4 / 3 + 1);
+            lists.forEach((term, list) -> frozen.put(term, list.toArray()));
+            return frozen;
+        }
+
+        /** First position in byPrice whose price is >= minPaise. */
+        int firstAtOrAbove(long minPaise) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (pricePaise[byPrice[mid]] < minPaise) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Merges the postings of every term (name, description, and all docs of
+         * categories whose name contains the term) in ordinal order, summing
+         * weights per document. Returns the number of matching documents.
+         */
+        long scoreTerms(List<String> terms, Filter filter, SearchSort sort, TopK top,
+                Map<Long, ProductDocument> overlay) {
+            if (filter.matchesNothing) {
+                return 0;
+            }
+            List<int[]> lists = new ArrayList<>();
+            List<Double> weights = new ArrayList<>();
+            for (String term : terms) {
+                int[] postings = namePostings.get(term);
+                if (postings != null) {
+                    lists.add(postings);
+                    weights.add(NAME_WEIGHT);
+                }
+                postings = descriptionPostings.get(term);
+                if (postings != null) {
+                    lists.add(postings);
+                    weights.add(DESCRIPTION_WEIGHT);
+                }
+            }
+            BitSet categoryMatches = new BitSet();
+            for (String term : terms) {
+                int[] ordinals = categoryTerms.get(term);
+                if (ordinals != null) {
+                    for (int c : ordinals) {
+                        categoryMatches.or(categoryDocs[c]);
+                    }
+                }
+            }
+
+            int cursors = lists.size();
+            int[] position = new int[cursors];
+            int categoryCursor = categoryMatches.nextSetBit(0);
+            long matched = 0;
+            while (true) {
+                int doc = Integer.MAX_VALUE;
+                for (int c = 0; c < cursors; c++) {
+                    int[] list = lists.get(c);
+                    if (position[c] < list.length && list[position[c]] < doc) {
+                        doc = list[position[c]];
+                    }
+                }
+                if (categoryCursor >= 0 && categoryCursor < doc) {
+                    doc = categoryCursor;
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                double score = 0;
+                for (int c = 0; c < cursors; c++) {
+                    int[] list = lists.get(c);
+                    if (position[c] < list.length && list[position[c]] == doc) {
+                        score += weights.get(c);
+                        position[c]++;
+                    }
+                }
+                if (categoryCursor == doc) {
+                    score += CATEGORY_WEIGHT;
+                    categoryCursor = categoryMatches.nextSetBit(doc + 1);
+                }
+
+                if (!filter.accepts(this, doc) || (overlay != null && overlay.containsKey(productIds[doc]))) {
+                    continue;
+                }
+                matched++;
+                top.offer(sortKey(sort, score, pricePaise[doc], createdAtMillis[doc], 0), doc);
+            }
+            return matched;
+        }
+
+        ProductDocument toDocument(int doc) {
+            ProductDocument d = new ProductDocument();
+            d.setId(Long.toString(productIds[doc]));
+            d.setProductName(new String(nameBytes, nameOffsets[doc], nameOffsets[doc + 1] - nameOffsets[doc],
+                    StandardCharsets.UTF_8));
+            d.setProductPrice(BigDecimal.valueOf(pricePaise[doc], 2));
+            d.setCategoryName(categoryOrdinal[doc] >= 0 ? categories[categoryOrdinal[doc]] : null);
+            d.setImageUrl(imageRef[doc] >= 0 ? images[imageRef[doc]] : null);
+            return d;
+        }
+    }
+
+    // ─── Small primitive helpers ──────────────────────────────────────────
+
+    /** Growable int array; postings are built in ordinal order, so duplicates are adjacent. */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addIfLast(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Bounded min-heap keeping the best k (key, doc) pairs; higher key wins,
+     * ties go to the lower doc ordinal.
+     */
+    private static final class TopK {
+        private final int capacity;
+        private final double[] keys;
+        private final int[] docs;
+        private int size;
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+            this.keys = new double[Math.max(1, capacity)];
+            this.docs = new int[Math.max(1, capacity)];
+        }
+
+        void offer(double key, int doc) {
+            if (capacity == 0) {
+                return;
+            }
+            if (size < capacity) {
+                keys[size] = key;
+                docs[size] = doc;
+                siftUp(size++);
+            } else if (better(key, doc, keys[0], docs[0])) {
+                keys[0] = key;
+                docs[0] = doc;
+                siftDown(0);
+            }
+        }
+
+        int[] drainBestFirst() {
+            int[] out = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                out[i] = docs[0];
+                size--;
+                keys[0] = keys[size];
+                docs[0] = docs[size];
+                siftDown(0);
+            }
+            return out;
+        }
+
+        private static boolean better(double k1, int d1, double k2, int d2) {
+            return k1 > k2 || (k1 == k2 && d1 < d2);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(keys[parent], docs[parent], keys[i], docs[i])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int worst = left;
+                int right = left + 1;
+                if (right < size && better(keys[left], docs[left], keys[right], docs[right])) {
+                    worst = right;
+                }
+                if (!better(keys[i], docs[i], keys[worst], docs[worst])) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            double k = keys[a];
+            keys[a] = keys[b];
+            keys[b] = k;
+            int d = docs[a];
+            docs[a] = docs[b];
+            docs[b] = d;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.codingmart.ecommerce.search;
+
+import com.codingmart.ecommerce.dto.SearchAnalyticsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Which searches dominate, which find nothing, and how slow each one is.
+ *
+ * Every search is reduced to a normalized key built from its parsed form —
+ * lower-cased keyword, recognised category, extracted price bounds and
+ * sort — so "phones under 5k" and "Phones below rs 5000" count as the same
+ * query. Keys go into two {@link HeavyHitters} (all searches, zero-result
+ * searches); per-request cost is a string build, a hash and a few atomic
+ * increments, with no locks.
+ *
+ * The top queries are saved to search_query_stats every
+ * search.analytics.persist-interval and on shutdown, and restored on startup
+ * before the initial reindex, so the search cache can be warmed with them
+ * right after a restart.
+ */
+@Component
+public class QueryAnalytics {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryAnalytics.class);
+
+    private static final int MAX_KEY_LENGTH = 400;
+    private static final int MAX_SAMPLE_LENGTH = 200;
+
+    @Autowired
+    private SearchProperties searchProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private HeavyHitters searches;
+    private HeavyHitters zeroResults;
+
+    @PostConstruct
+    private void init() {
+        SearchProperties.Analytics config = searchProperties.getAnalytics();
+        searches = new HeavyHitters(config.getTopK(), config.getSketchWidth(), config.getSketchDepth());
+        zeroResults = new HeavyHitters(config.getTopK(), config.getSketchWidth(), config.getSketchDepth());
+    }
+
+    /**
+     * Records one answered search. raw is the text as typed; it is kept (for
+     * replaying the query) only once the query is a heavy hitter.
+     */
+    public void record(SearchQuery query, String raw, long totalHits, long nanos) {
+        if (!searchProperties.getAnalytics().isEnabled()) {
+            return;
+        }
+        String key = normalize(query);
+        long hash = HeavyHitters.hash(key);
+        observe(searches.add(key, hash), query, raw, totalHits, nanos);
+        if (totalHits == 0) {
+            observe(zeroResults.add(key, hash), query, raw, totalHits, nanos);
+        }
+    }
+
+    private static void observe(HeavyHitters.Candidate candidate, SearchQuery query, String raw,
+            long totalHits, long nanos) {
+        if (candidate == null) {
+            return;
+        }
+        candidate.searches.increment();
+        candidate.totalNanos.add(nanos);
+        candidate.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (totalHits == 0) {
+            candidate.zeroResults.increment();
+        }
+        if (candidate.sample == null && raw.length() <= MAX_SAMPLE_LENGTH) {
+            candidate.sort = query.getSort();
+            candidate.sample = raw.trim();
+        }
+    }
+
+    /** Most searched normalized queries, most frequent first. */
+    public List<SearchAnalyticsResponse.QueryStat> topQueries(int limit) {
+        return toStats(searches.top(limit));
+    }
+
+    /** Most frequent normalized queries that returned no results. */
+    public List<SearchAnalyticsResponse.QueryStat> zeroResultQueries(int limit) {
+        return toStats(zeroResults.top(limit));
+    }
+
+    /** Replayable top queries (raw text plus sort), most frequent first. */
+    public List<TopQuery> warmQueries(int limit) {
+        List<TopQuery> queries = new ArrayList<>(limit);
+        for (HeavyHitters.Candidate candidate : searches.top(limit)) {
+            if (candidate.sample != null) {
+                queries.add(new TopQuery(candidate.sample, candidate.sort));
+            }
+        }
+        return queries;
+    }
+
+    private static List<SearchAnalyticsResponse.QueryStat> toStats(List<HeavyHitters.Candidate> candidates) {
+        List<SearchAnalyticsResponse.QueryStat> stats = new ArrayList<>(candidates.size());
+        for (HeavyHitters.Candidate c : candidates) {
+            long observed = c.searches.sum();
+            double avgMs = observed == 0 ? 0 : c.totalNanos.sum() / 1e6 / observed;
+            stats.add(new SearchAnalyticsResponse.QueryStat(c.key, c.count, c.zeroResults.sum(),
+                    avgMs, c.maxNanos.get() / 1e6));
+        }
+        return stats;
+    }
+
+    /**
+     * Canonical key of a parsed query, e.g. "phone category:Mobiles price:..5000 sort:price_asc".
+     */
+    static String normalize(SearchQuery query) {
+        StringBuilder key = new StringBuilder(64);
+        if (query.hasKeyword()) {
+            String keyword = query.getKeyword().toLowerCase(Locale.ROOT);
+            boolean space = false;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    space = key.length() > 0;
+                } else {
+                    if (space) {
+                        key.append(' ');
+                        space = false;
+                    }
+                    key.append(c);
+                }
+            }
+        }
+        if (query.hasCategory()) {
+            key.append(key.length() > 0 ? " " : "").append("category:").append(query.getCategory());
+        }
+        if (query.hasPriceFilter()) {
+            key.append(key.length() > 0 ? " " : "").append("price:")
+                    .append(plain(query.getMinPrice())).append("..").append(plain(query.getMaxPrice()));
+        }
+        if (query.getSort() != null && query.getSort() != SearchSort.RELEVANCE) {
+            key.append(key.length() > 0 ? " " : "").append("sort:").append(query.getSort().name().toLowerCase(Locale.ROOT));
+        }
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key.toString();
+    }
+
+    private static String plain(BigDecimal amount) {
+        return amount == null ? "" : amount.stripTrailingZeros().toPlainString();
+    }
+
+    // ─── Decay & persistence ────────────────────────────────────────────────
+
+    @Scheduled(fixedDelayString = "${search.analytics.decay-interval:1h}",
+            initialDelayString = "${search.analytics.decay-interval:1h}")
+    public void decay() {
+        searches.decay();
+        zeroResults.decay();
+    }
+
+    /**
+     * Replaces the saved top queries with the current ones.
+     */
+    @Scheduled(fixedDelayString = "${search.analytics.persist-interval:5m}",
+            initialDelayString = "${search.analytics.persist-interval:5m}")
+    public void persist() {
+        if (!searchProperties.getAnalytics().isEnabled()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (HeavyHitters.Candidate candidate : searches.top(searchProperties.getAnalytics().getTopK())) {
+            if (candidate.sample != null) {
+                rows.add(new Object[]{candidate.key, candidate.sample, candidate.sort.name(), candidate.count});
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM search_query_stats");
+                jdbcTemplate.batchUpdate("INSERT INTO search_query_stats (query_key, sample_query, sort_order, searches) "
+                        + "VALUES (?, ?, ?, ?)", rows);
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Saving search analytics failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        persist();
+    }
+
+    /**
+     * Seeds the counters with the saved top queries. Runs before the startup
+     * reindex (ElasticsearchSyncRunner), whose completion triggers warming.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void restore() {
+        if (!searchProperties.getAnalytics().isEnabled()) {
+            return;
+        }
+        try {
+            int[] restored = new int[1];
+            jdbcTemplate.query("SELECT query_key, sample_query, sort_order, searches FROM search_query_stats", rs -> {
+                String key = rs.getString("query_key");
+                HeavyHitters.Candidate candidate = searches.add(key, HeavyHitters.hash(key), rs.getLong("searches"));
+                if (candidate != null && candidate.sample == null) {
+                    candidate.sort = SearchSort.valueOf(rs.getString("sort_order"));
+                    candidate.sample = rs.getString("sample_query");
+                    restored[0]++;
+                }
+            });
+            logger.info("Restored {} top search queries", restored[0]);
+        } catch (RuntimeException e) {
+            logger.warn("Restoring search analytics failed: {}", e.getMessage());
+        }
+    }
+
+    /** A query worth keeping warm in the search cache. */
+    public static final class TopQuery {
+        private final String query;
+        private final SearchSort sort;
+
+        TopQuery(String query, SearchSort sort) {
+            this.query = query;
+            this.sort = sort;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public SearchSort getSort() {
+            return sort;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.codingmart.ecommerce.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search tuning knobs bound from "search.*" in application.properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "search")
+public class SearchProperties {
+
+    /**
+     * Extra words that should be read as a category, keyed by the category name
+     * lower-cased with its words joined by '-' (punctuation dropped), e.g.
+     * search.category-synonyms.toys-games=toys,games for "Toys &amp; Games".
+     */
+    private Map<String, List<String>> categorySynonyms = new HashMap<>();
+
+    /**
+     * When the analyzed (non-fuzzy) first pass finds fewer hits than this, the
+     * search is re-run once with fuzziness AUTO. 0 disables the fallback tier.
+     */
+    private int fuzzyFallbackMinHits = 3;
+
+    /**
+     * For price/newest sorted searches, count hits exactly only up to this
+     * many; past it ES may skip non-competitive documents using the sort
+     * field's doc values. Relevance searches keep the ES default (10,000).
+     */
+    private int sortedTrackTotalHitsUpTo = 1000;
+
+    /**
+     * Replicas of the products index, applied whenever the sync recreates it.
+     * 0 keeps a single-node cluster green; raise it to nodes - 1 on a cluster.
+     */
+    private int indexReplicas = 0;
+
+    /**
+     * Degraded-mode local index used when Elasticsearch is unavailable.
+     */
+    private LocalIndex localIndex = new LocalIndex();
+
+    @Data
+    public static class LocalIndex {
+
+        /** Build the in-JVM index during sync and fall back to it on ES failures. */
+        private boolean enabled = true;
+
+        /** Catalogs larger than this skip the local index (roughly 150 MB per million products). */
+        private int maxDocuments = 2_000_000;
+
+        /**
+         * Products written between syncs (e.g. imported) kept on top of the
+         * snapshot. Every degraded search scans them all; past this the
+         * index is marked stale until the next sync.
+         */
+        private int maxOverlay = 5_000;
+    }
+
+    /**
+     * Query analytics (heavy hitters) recorded on every search.
+     */
+    private Analytics analytics = new Analytics();
+
+    @Data
+    public static class Analytics {
+
+        private boolean enabled = true;
+
+        /** Normalized queries tracked individually (count, latency, zero results). */
+        private int topK = 200;
+
+        /** Count-Min sketch counters per row (rounded up to a power of two). */
+        private int sketchWidth = 16384;
+
+        /** Count-Min sketch rows (independent hashes). */
+        private int sketchDepth = 4;
+
+        /** All counts are halved this often, so the ranking follows recent traffic. */
+        private Duration decayInterval = Duration.ofHours(1);
+
+        /** How often the top queries are saved to MySQL (they survive restarts for warming). */
+        private Duration persistInterval = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Cache of search result pages, pre-warmed with the top queries.
+     */
+    private Cache cache = new Cache();
+
+    @Data
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        private int maxEntries = 10_000;
+
+        /** Bounds staleness for changes that do not go through a full reindex. */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /** Top queries searched again (first page) after every reindex and on startup. */
+        private int warmQueries = 50;
+
+        /** Page size used when warming; matches the search endpoint default. */
+        private int warmPageSize = 10;
+    }
+
+    /**
+     * Precomputed "related products" table, rebuilt after every reindex.
+     */
+    private Related related = new Related();
+
+    @Data
+    public static class Related {
+
+        private boolean enabled = true;
+
+        /** Related products stored per product. */
+        private int topN = 8;
+
+        /** Highest-weighted terms kept per product vector. */
+        private int maxTermsPerProduct = 16;
+
+        /** Longest posting list walked per term (highest weights first); bounds build time. */
+        private int maxPostingsPerTerm = 256;
+
+        /** Added to the text similarity of two products in the same category. */
+        private double categoryBonus = 0.2;
+
+        /** Catalogs larger than this skip the table. */
+        private int maxDocuments = 2_000_000;
+    }
+
+    /**
+     * Deadline, pool, hedging and circuit breaker for search calls to ES.
+     */
+    private Guard guard = new Guard();
+
+    @Data
+    public static class Guard {
+
+        /** Budget for all ES calls of one search request (including the fuzzy second pass). */
+        private Duration timeout = Duration.ofMillis(800);
+
+        /** Threads running ES calls; callers wait on them with the deadline. */
+        private int poolSize = 32;
+
+        /** Calls queued beyond the pool before new ones are rejected. */
+        private int queueCapacity = 100;
+
+        /** Send a second, identical search when the first is slower than the recent p95. */
+        private boolean hedgeEnabled = true;
+
+        /** Lower bound on the hedge delay, so a fast cluster is not hit twice routinely. */
+        private Duration hedgeMinDelay = Duration.ofMillis(50);
+
+        private Breaker breaker = new Breaker();
+    }
+
+    @Data
+    public static class Breaker {
+
+        /** Number of recent calls the failure and slow-call rates are computed over. */
+        private int windowSize = 50;
+
+        /** Calls needed in the window before the breaker may open. */
+        private int minimumCalls = 20;
+
+        /** Percentage of failed calls that opens the breaker. */
+        private int failureRateThreshold = 50;
+
+        /** A successful call slower than this counts as slow. */
+        private Duration slowCallThreshold = Duration.ofMillis(500);
+
+        /** Percentage of slow calls that opens the breaker. */
+        private int slowCallRateThreshold = 80;
+
+        /** How long the breaker stays open before letting trial calls through. */
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        /** Trial calls that must all succeed in HALF_OPEN to close again. */
+        private int halfOpenCalls = 3;
+    }
+}
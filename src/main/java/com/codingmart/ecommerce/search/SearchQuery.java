@@ -0,0 +1,111 @@
+package com.codingmart.ecommerce.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Structured form of a raw search string, produced by {@link SearchQueryParser}.
+ *
+ * Only {@link #getKeyword()} is scored; price bounds and the category are
+ * exact constraints and always go into the Elasticsearch filter context
+ * (cacheable, no scoring).
+ */
+public final class SearchQuery {
+
+    private final String keyword;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final SearchSort sort;
+    private final String category;
+    /** The query before a category was read out of its keyword, or null. */
+    private final SearchQuery unscoped;
+
+    public SearchQuery(String keyword, BigDecimal minPrice, BigDecimal maxPrice, SearchSort sort) {
+        this(keyword, minPrice, maxPrice, sort, null);
+    }
+
+    public SearchQuery(String keyword, BigDecimal minPrice, BigDecimal maxPrice, SearchSort sort, String category) {
+        this(keyword, minPrice, maxPrice, sort, category, null);
+    }
+
+    private SearchQuery(String keyword, BigDecimal minPrice, BigDecimal maxPrice, SearchSort sort, String category,
+            SearchQuery unscoped) {
+        this.keyword = keyword;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.sort = sort;
+        this.category = category;
+        this.unscoped = unscoped;
+    }
+
+    /**
+     * Copy scoped to an exact category, with the words that named it removed
+     * from the keyword (null when nothing is left to score). The copy remembers
+     * this query, see {@link #withoutCategory()}.
+     */
+    public SearchQuery withCategory(String category, String remainingKeyword) {
+        return new SearchQuery(remainingKeyword, minPrice, maxPrice, sort, category, this);
+    }
+
+    /**
+     * Copy with an explicitly requested sort, which overrides any sort intent
+     * recognised in the text.
+     */
+    public SearchQuery withSort(SearchSort sort) {
+        return new SearchQuery(keyword, minPrice, maxPrice, sort, category,
+                unscoped != null ? unscoped.withSort(sort) : null);
+    }
+
+    /**
+     * The query as it was before {@link #withCategory} moved words out of the
+     * keyword: no category, the original keyword, same price bounds and sort.
+     * Returns this query when no category was inferred.
+     */
+    public SearchQuery withoutCategory() {
+        return unscoped != null ? unscoped : this;
+    }
+
+    /** Whether the category was read out of the keyword rather than given exactly. */
+    public boolean isCategoryInferred() {
+        return unscoped != null;
+    }
+
+    /** Words left for full-text scoring, or null when the query was only constraints. */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public SearchSort getSort() {
+        return sort;
+    }
+
+    /** Canonical category name (as stored in MySQL) recognised in the query, or null. */
+    public String getCategory() {
+        return category;
+    }
+
+    public boolean hasKeyword() {
+        return keyword != null;
+    }
+
+    public boolean hasPriceFilter() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    public boolean hasCategory() {
+        return category != null;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchQuery{keyword='" + keyword + "', minPrice=" + minPrice + ", maxPrice=" + maxPrice
+                + ", sort=" + sort + ", category='" + category + "'}";
+    }
+}
@@ -0,0 +1,457 @@
+package com.codingmart.ecommerce.search;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Turns a raw search string into a {@link SearchQuery}.
+ *
+ * Replaces the old PRICE_PATTERN regex chain (find + two replaceAll passes)
+ * with one tokenizer pass over the characters and one pass over the tokens.
+ * Words are compared in place with regionMatches, amounts are accumulated as
+ * long paise, and the only allocations are the token arrays, the keyword
+ * StringBuilder and the resulting BigDecimals.
+ *
+ * Understands:
+ * - max price: "under 5000", "below rs 2k", "less than ₹1.5 lakh", "5000 or less"
+ * - min price: "above 2000", "over 10k", "more than 500", "1000 or more", "5000+"
+ * - ranges: "between 1000 and 5000", "from 1k to 5k", "1k-5k", "1000 to 5000"
+ * - units: k / thousand, lakh / lac, cr / crore; currency words rs, inr, rupees, ₹
+ *   (amounts are clamped to the largest storable price, {@link #MAX_PRICE_PAISE})
+ * - sort intent: "cheapest", "lowest price", "low to high", "costliest",
+ * "most expensive", "high to low"
+ *
+ * Everything else is kept, in its original form, as the keyword to score.
+ */
+@Component
+public class SearchQueryParser {
+
+    private static final SearchQuery EMPTY = new SearchQuery(null, null, null, SearchSort.RELEVANCE);
+
+    /** Largest integer part accepted as an amount; longer digit runs stay plain keywords. */
+    private static final long MAX_INTEGER_PART = 1_000_000_000L;
+
+    /**
+     * Largest price products.product_price (DECIMAL(10,2)) can hold, in
+     * paise. Amounts above it, e.g. "under 5000 crore", are clamped to it.
+     */
+    static final long MAX_PRICE_PAISE = 9_999_999_999L;
+
+    private static final byte WORD = 0;
+    private static final byte NUMBER = 1;
+    private static final byte LT = 2;
+    private static final byte GT = 3;
+    private static final byte DASH = 4;
+    private static final byte PLUS = 5;
+    private static final byte RUPEE = 6;
+
+    public SearchQuery parse(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return EMPTY;
+        }
+        Tokens tokens = new Tokens(raw);
+        tokens.tokenize();
+        return tokens.interpret();
+    }
+
+    /**
+     * Per-call parse state. Tokens are stored as parallel primitive arrays of
+     * offsets into the raw string, so no substring is ever created for them.
+     */
+    private static final class Tokens {
+
+        private final String raw;
+        private int count;
+        private byte[] kind;
+        private int[] start;
+        private int[] end;
+        private long[] paise;
+        private boolean[] used;
+
+        // Interpretation results
+        private long minPaise = -1;
+        private long maxPaise = -1;
+        private SearchSort sort = SearchSort.RELEVANCE;
+        // Output of the last successful readAmount()
+        private long amount;
+
+        Tokens(String raw) {
+            this.raw = raw;
+            int capacity = Math.max(8, Math.min(raw.length(), 64));
+            this.kind = new byte[capacity];
+            this.start = new int[capacity];
+            this.end = new int[capacity];
+            this.paise = new long[capacity];
+        }
+
+        // ─── Pass 1: characters → tokens ────────────────────────────────────
+
+        void tokenize() {
+            int n = raw.length();
+            int i = 0;
+            while (i < n) {
+                char c = raw.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    i = readNumber(i, n);
+                } else if (c == '<') {
+                    add(LT, i, ++i, 0);
+                } else if (c == '>') {
+                    add(GT, i, ++i, 0);
+                } else if (c == '-' || c == '–' || c == '—') {
+                    add(DASH, i, ++i, 0);
+                } else if (c == '+') {
+                    add(PLUS, i, ++i, 0);
+                } else if (c == '₹') {
+                    add(RUPEE, i, ++i, 0);
+                } else if (isWordChar(c)) {
+                    int s = i;
+                    i++;
+                    while (i < n) {
+                        char d = raw.charAt(i);
+                        // "rs.5000" → "rs." + 5000
+                        if (d >= '0' && d <= '9' && raw.charAt(i - 1) == '.') {
+                            break;
+                        }
+                        if (!isWordChar(d)) {
+                            break;
+                        }
+                        i++;
+                    }
+                    add(WORD, s, i, 0);
+                } else {
+                    i++;
+                }
+            }
+            used = new boolean[count];
+        }
+
+        /** Digits with optional thousands commas and up to two decimals, e.g. "1,50,000.50". */
+        private int readNumber(int i, int n) {
+            int s = i;
+            long integer = 0;
+            long fraction = 0;
+            int fractionDigits = 0;
+            boolean dot = false;
+            boolean overflow = false;
+            while (i < n) {
+                char d = raw.charAt(i);
+                if (d >= '0' && d <= '9') {
+                    if (dot) {
+                        if (fractionDigits < 2) {
+                            fraction = fraction * 10 + (d - '0');
+                            fractionDigits++;
+                        }
+                    } else if (integer < MAX_INTEGER_PART) {
+                        integer = integer * 10 + (d - '0');
+                    } else {
+                        overflow = true;
+                    }
+                    i++;
+                } else if ((d == ',' || (d == '.' && !dot)) && i + 1 < n && isDigit(raw.charAt(i + 1))) {
+                    dot |= d == '.';
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            if (overflow) {
+                add(WORD, s, i, 0);
+            } else {
+                add(NUMBER, s, i, integer * 100 + (fractionDigits == 1 ? fraction * 10 : fraction));
+            }
+            return i;
+        }
+
+        private void add(byte k, int s, int e, long value) {
+            if (count == kind.length) {
+                int grown = count * 2;
+                kind = Arrays.copyOf(kind, grown);
+                start = Arrays.copyOf(start, grown);
+                end = Arrays.copyOf(end, grown);
+                paise = Arrays.copyOf(paise, grown);
+            }
+            kind[count] = k;
+            start[count] = s;
+            end[count] = e;
+            paise[count] = value;
+            count++;
+        }
+
+        // ─── Pass 2: tokens → constraints + keyword ─────────────────────────
+
+        SearchQuery interpret() {
+            int i = 0;
+            while (i < count) {
+                int next = match(i);
+                if (next > i) {
+                    for (int t = i; t < next; t++) {
+                        used[t] = true;
+                    }
+                    i = next;
+                } else {
+                    i++;
+                }
+            }
+
+            if (minPaise >= 0 && maxPaise >= 0 && minPaise > maxPaise) {
+                long swap = minPaise;
+                minPaise = maxPaise;
+                maxPaise = swap;
+            }
+            return new SearchQuery(keyword(),
+                    minPaise >= 0 ? BigDecimal.valueOf(minPaise, 2) : null,
+                    maxPaise >= 0 ? BigDecimal.valueOf(maxPaise, 2) : null,
+                    sort);
+        }
+
+        /**
+         * Tries every phrase form at token i. Returns the index after the
+         * recognised phrase, or i when nothing matched.
+         */
+        private int match(int i) {
+            int j;
+
+            // "between A and B" / "from A to B" / "from A"
+            boolean between = isWord(i, "between");
+            if ((between || isWord(i, "from")) && (j = readAmount(i + 1)) > 0) {
+                long low = amount;
+                int k = rangeTail(j);
+                if (k > 0) {
+                    setRange(low, amount);
+                    return k;
+                }
+                if (!between) {
+                    minPaise = low;
+                    return j;
+                }
+            }
+
+            // "under 5000", "less than rs 2k"
+            int cue = maxCue(i);
+            if (cue > 0 && (j = readAmount(cue)) > 0) {
+                maxPaise = amount;
+                return j;
+            }
+
+            // "above 2000", "more than 500"
+            cue = minCue(i);
+            if (cue > 0 && (j = readAmount(cue)) > 0) {
+                minPaise = amount;
+                return j;
+            }
+
+            // Amount first: "1k-5k", "1000 to 5000", "5000 or less", "2000+"
+            if ((j = readAmount(i)) > 0) {
+                long value = amount;
+                int k = rangeTail(j);
+                if (k > 0) {
+                    setRange(value, amount);
+                    return k;
+                }
+                if ((k = maxSuffix(j)) > 0) {
+                    maxPaise = value;
+                    return k;
+                }
+                if ((k = minSuffix(j)) > 0) {
+                    minPaise = value;
+                    return k;
+                }
+                return i; // bare number such as "iphone 15" stays a keyword
+            }
+
+            return sortIntent(i);
+        }
+
+        /** "and B" / "to B" / "- B" following a first amount. */
+        private int rangeTail(int j) {
+            if (j < count && (isWord(j, "and") || isWord(j, "to") || kind[j] == DASH)) {
+                return readAmount(j + 1);
+            }
+            return -1;
+        }
+
+        private void setRange(long a, long b) {
+            minPaise = Math.min(a, b);
+            maxPaise = Math.max(a, b);
+        }
+
+        /**
+         * [currency] NUMBER [unit] [currency]. On success stores the value in
+         * {@link #amount} and returns the index after it, else -1.
+         */
+        private int readAmount(int j) {
+            if (j < count && isCurrency(j)) {
+                j++;
+            }
+            if (j >= count || kind[j] != NUMBER) {
+                return -1;
+            }
+            long value = Math.min(paise[j++], MAX_PRICE_PAISE);
+            if (j < count) {
+                long multiplier = unitMultiplier(j);
+                if (multiplier > 0) {
+                    // value <= MAX_PRICE_PAISE, so the check itself cannot overflow
+                    value = value > MAX_PRICE_PAISE / multiplier ? MAX_PRICE_PAISE : value * multiplier;
+                    j++;
+                }
+            }
+            if (j < count && isCurrency(j)) {
+                j++;
+            }
+            amount = value;
+            return j;
+        }
+
+        private long unitMultiplier(int t) {
+            if (isWord(t, "k") || isWord(t, "thousand")) {
+                return 1_000L;
+            }
+            if (isWord(t, "lakh") || isWord(t, "lakhs") || isWord(t, "lac") || isWord(t, "lacs")) {
+                return 100_000L;
+            }
+            if (isWord(t, "cr") || isWord(t, "crore") || isWord(t, "crores")) {
+                return 10_000_000L;
+            }
+            return 0;
+        }
+
+        private boolean isCurrency(int t) {
+            return kind[t] == RUPEE || isWord(t, "rs") || isWord(t, "inr") || isWord(t, "rupee")
+                    || isWord(t, "rupees");
+        }
+
+        private int maxCue(int i) {
+            if (i >= count) {
+                return -1;
+            }
+            if (kind[i] == LT || isWord(i, "under") || isWord(i, "below") || isWord(i, "within")
+                    || isWord(i, "upto") || isWord(i, "max") || isWord(i, "maximum")) {
+                return i + 1;
+            }
+            if ((isWord(i, "less") || isWord(i, "cheaper") || isWord(i, "lower")) && isWord(i + 1, "than")) {
+                return i + 2;
+            }
+            if (isWord(i, "up") && isWord(i + 1, "to")) {
+                return i + 2;
+            }
+            return -1;
+        }
+
+        private int minCue(int i) {
+            if (i >= count) {
+                return -1;
+            }
+            if (kind[i] == GT || isWord(i, "above") || isWord(i, "over") || isWord(i, "min")
+                    || isWord(i, "minimum")) {
+                return i + 1;
+            }
+            if ((isWord(i, "more") || isWord(i, "greater") || isWord(i, "higher")) && isWord(i + 1, "than")) {
+                return i + 2;
+            }
+            if ((isWord(i, "starting") || isWord(i, "starts")) && (isWord(i + 1, "at") || isWord(i + 1, "from"))) {
+                return i + 2;
+            }
+            return -1;
+        }
+
+        private int maxSuffix(int j) {
+            if (isWord(j, "max") || isWord(j, "maximum")) {
+                return j + 1;
+            }
+            if ((isWord(j, "or") && (isWord(j + 1, "less") || isWord(j + 1, "below") || isWord(j + 1, "cheaper")))
+                    || (isWord(j, "and") && (isWord(j + 1, "below") || isWord(j + 1, "under")))) {
+                return j + 2;
+            }
+            return -1;
+        }
+
+        private int minSuffix(int j) {
+            if ((j < count && kind[j] == PLUS) || isWord(j, "plus") || isWord(j, "onwards")
+                    || isWord(j, "upwards")) {
+                return j + 1;
+            }
+            if ((isWord(j, "or") && (isWord(j + 1, "more") || isWord(j + 1, "above")))
+                    || (isWord(j, "and") && (isWord(j + 1, "above") || isWord(j + 1, "over")))) {
+                return j + 2;
+            }
+            return -1;
+        }
+
+        private int sortIntent(int i) {
+            if (isWord(i, "cheapest")) {
+                sort = SearchSort.PRICE_ASC;
+                return i + 1;
+            }
+            if (isWord(i, "costliest") || isWord(i, "priciest")) {
+                sort = SearchSort.PRICE_DESC;
+                return i + 1;
+            }
+            if (isWord(i, "lowest") || isWord(i, "highest")) {
+                sort = isWord(i, "lowest") ? SearchSort.PRICE_ASC : SearchSort.PRICE_DESC;
+                return isWord(i + 1, "price") || isWord(i + 1, "priced") ? i + 2 : i + 1;
+            }
+            if (isWord(i, "most") && isWord(i + 1, "expensive")) {
+                sort = SearchSort.PRICE_DESC;
+                return i + 2;
+            }
+            // "[price] low to high" / "[price] high to low"
+            int p = isWord(i, "price") ? i + 1 : i;
+            if (isWord(p + 1, "to")) {
+                if (isWord(p, "low") && isWord(p + 2, "high")) {
+                    sort = SearchSort.PRICE_ASC;
+                    return p + 3;
+                }
+                if (isWord(p, "high") && isWord(p + 2, "low")) {
+                    sort = SearchSort.PRICE_DESC;
+                    return p + 3;
+                }
+            }
+            return i;
+        }
+
+        /** Case-insensitive, allocation-free comparison of token t with w (ignoring a trailing '.'). */
+        private boolean isWord(int t, String w) {
+            if (t >= count || kind[t] != WORD) {
+                return false;
+            }
+            int s = start[t];
+            int e = end[t];
+            if (e - s > 1 && raw.charAt(e - 1) == '.') {
+                e--;
+            }
+            return e - s == w.length() && raw.regionMatches(true, s, w, 0, w.length());
+        }
+
+        /**
+         * Unconsumed words and numbers in their original spelling. Tokens that
+         * touched in the input ("5g", "128gb") are re-joined without a space.
+         */
+        private String keyword() {
+            StringBuilder sb = null;
+            int lastEnd = -1;
+            for (int t = 0; t < count; t++) {
+                if (used[t] || (kind[t] != WORD && kind[t] != NUMBER)) {
+                    continue;
+                }
+                if (sb == null) {
+                    sb = new StringBuilder(raw.length());
+                } else if (start[t] != lastEnd) {
+                    sb.append(' ');
+                }
+                sb.append(raw, start[t], end[t]);
+                lastEnd = end[t];
+            }
+            return sb == null ? null : sb.toString();
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '\'' || c == '.' || c == '&';
+        }
+    }
+}
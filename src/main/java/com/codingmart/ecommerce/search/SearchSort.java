@@ -0,0 +1,56 @@
+package com.codingmart.ecommerce.search;
+
+import com.codingmart.ecommerce.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Locale;
+
+/**
+ * Sort intent of a product search or listing, either requested explicitly
+ * (?sort=price_asc) or recognised in the query text ("cheapest phones" →
+ * PRICE_ASC).
+ *
+ * Every ordering ends with the product id, so pages are stable when many
+ * products share a price or timestamp.
+ */
+public enum SearchSort {
+    RELEVANCE,
+    PRICE_ASC,
+    PRICE_DESC,
+    NEWEST;
+
+    /**
+     * Parses a ?sort= value (relevance, price_asc, price_desc, newest; case
+     * insensitive). Blank means the given default.
+     */
+    public static SearchSort fromParam(String value, SearchSort defaultSort) {
+        if (value == null || value.isBlank()) {
+            return defaultSort;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(
+                    "Unknown sort '" + value + "'; use relevance, price_asc, price_desc or newest");
+        }
+    }
+
+    /**
+     * MySQL ordering for listings. Backed by the (category_id, product_price)
+     * and (category_id, created_at) indexes on products; InnoDB secondary
+     * indexes end with the primary key, so the id tie-breaker costs nothing.
+     * There is no relevance in MySQL — it means the natural id order.
+     */
+    public Sort toJpaSort() {
+        switch (this) {
+            case PRICE_ASC:
+                return Sort.by(Sort.Order.asc("productPrice"), Sort.Order.asc("productId"));
+            case PRICE_DESC:
+                return Sort.by(Sort.Order.desc("productPrice"), Sort.Order.desc("productId"));
+            case NEWEST:
+                return Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("productId"));
+            default:
+                return Sort.by(Sort.Order.asc("productId"));
+        }
+    }
+}
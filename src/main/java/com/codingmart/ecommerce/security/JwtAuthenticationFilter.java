@@ -1,10 +1,16 @@
 package com.codingmart.ecommerce.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -13,8 +19,16 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,8 +42,45 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    private static final List<SimpleGrantedAuthority> USER_AUTHORITIES =
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+    private static final List<SimpleGrantedAuthority> ADMIN_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    /** Accounts (by email) that also get ROLE_ADMIN: stock, management endpoints. */
+    @Value("${security.admin-emails:}")
+    private String[] adminEmailList;
+
+    private Set<String> adminEmails;
+
+    /**
+     * Cost of the JWT work only (parse + validate), excluding the rest of the
+     * chain. Tagged by outcome: anonymous, authenticated, rejected, expired, error.
+     */
+    private final Map<String, Timer> timers = new HashMap<>();
+
+    @PostConstruct
+    private void initTimers() {
+        adminEmails = Arrays.stream(adminEmailList)
+                .map(email -> email.trim().toLowerCase(Locale.ROOT))
+                .filter(email -> !email.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        for (String outcome : List.of("anonymous", "authenticated", "rejected", "expired", "error")) {
+            timers.put(outcome, Timer.builder("security.jwt.filter")
+                    .description("Time spent authenticating the request JWT")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
             HttpServletResponse response,
@@ -52,31 +103,45 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 3. Extract the JWT token (remove "Bearer " prefix)
         jwt = authHeader.substring(7);
 
+        long start = System.nanoTime();
+        String outcome = "anonymous";
+
         try {
-            // 4. Extract email from the token
-            userEmail = jwtUtil.extractEmail(jwt);
+            // 4. Verify the token (signature and expiry) and extract the email
+            Claims claims = jwtUtil.parseClaims(jwt);
+            userEmail = claims.getSubject();
 
             // 5. If email exists and user is not already authenticated in this request
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                logger.debug("Validating token for user: " + userEmail);
-                // 6. Validate the token
-                if (jwtUtil.validateToken(jwt, userEmail)) {
-                    logger.info("Authentication successful for user: " + userEmail);
+                logger.debug("Validating token for user: {}", userEmail);
+                // 6. Only unrevoked access tokens authenticate (in-memory check, no I/O)
+                if (JwtUtil.TYPE_ACCESS.equals(claims.get(JwtUtil.CLAIM_TYPE))
+                        && claims.getId() != null && !tokenRevocationService.isRevoked(claims.getId())) {
+                    logger.debug("Authentication successful for user: {}", userEmail);
                     // 7. Create an Authentication object for Spring Security
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userEmail, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+                            userEmail, null, adminEmails.contains(userEmail.toLowerCase(Locale.ROOT))
+                                    ? ADMIN_AUTHORITIES : USER_AUTHORITIES);
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                     // 8. Set the authentication in the SecurityContext
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    outcome = "authenticated";
                 } else {
-                    logger.warn("Token validation failed for user: " + userEmail);
+                    logger.debug("Token revoked or not an access token for user: {}", userEmail);
+                    outcome = "rejected";
                 }
             }
+        } catch (ExpiredJwtException e) {
+            // Routine with short-lived tokens; the client refreshes on the 401
+            logger.debug("JWT expired for user: {}", e.getClaims().getSubject());
+            outcome = "expired";
         } catch (Exception e) {
-            logger.error("JWT Authentication failed: " + e.getMessage());
+            logger.warn("JWT Authentication failed: {}", e.getMessage());
+            outcome = "error";
         }
+        timers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         // 9. Continue with the next filter in the chain
         filterChain.doFilter(request, response);
@@ -9,12 +9,20 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
  * Utility class for JSON Web Token (JWT) operations.
  * Handles generation, extraction, and validation of tokens.
+ *
+ * Two kinds of token are issued, told apart by the "typ" claim: short-lived
+ * access tokens (jwt.access-token-ttl) sent with every request, and refresh
+ * tokens (jwt.refresh-token-ttl) that are only accepted by /api/auth/refresh.
+ * Both carry a random jti so they can be revoked individually
+ * ({@link TokenRevocationService}).
  */
 @Component
 public class JwtUtil {
@@ -31,21 +39,46 @@ public class JwtUtil {
         this.key = Keys.hmacShaKeyFor(secretValue.getBytes());
     }
 
-    // Token validity period (e.g., 24 hours in milliseconds)
-    private final long JWT_EXPIRATION = 1000 * 60 * 60 * 24;
+    public static final String CLAIM_TYPE = "typ";
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    @Value("${jwt.access-token-ttl:15m}")
+    private Duration accessTokenTtl;
+
+    @Value("${jwt.refresh-token-ttl:14d}")
+    private Duration refreshTokenTtl;
 
     /**
-     * Generate a token for a specific user email.
+     * Generate an access token for a specific user email.
      */
     public String generateToken(String email) {
+        return generate(email, TYPE_ACCESS, accessTokenTtl);
+    }
+
+    /**
+     * Generate a refresh token for a specific user email.
+     */
+    public String generateRefreshToken(String email) {
+        return generate(email, TYPE_REFRESH, refreshTokenTtl);
+    }
+
+    private String generate(String email, String type, Duration ttl) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
+                .claim(CLAIM_TYPE, type)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttl.toMillis()))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    public long getAccessTokenTtlSeconds() {
+        return accessTokenTtl.toSeconds();
+    }
+
     /**
      * Extract the user email (subject) from the token.
      */
@@ -68,6 +101,14 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verify signature and expiry and return all claims, parsing the token once.
+     * Throws a JwtException (e.g. ExpiredJwtException) if the token is invalid.
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     private Claims extractAllClaims(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(key)
@@ -0,0 +1,196 @@
+package com.codingmart.ecommerce.security;
+
+import com.codingmart.ecommerce.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client rate limiting for the expensive public endpoints (search, signin,
+ * signup, sync), configured under rate-limit.routes.
+ *
+ * Runs right after {@link JwtAuthenticationFilter}, so a signed-in client is
+ * limited by its JWT subject and everyone else by client IP.
+ *
+ * Each bucket is one AtomicLong holding the GCRA "theoretical arrival time":
+ * admitting a request is a single compare-and-set, with no locks. Buckets live
+ * in a ConcurrentHashMap per route (itself striped internally). A bucket whose
+ * arrival time lies idle-timeout in the past is indistinguishable from a new
+ * one, so the scheduled sweep just drops it. Once a route tracks max-buckets
+ * clients, further new clients share one overflow bucket until the sweep frees
+ * room, which keeps memory bounded under an IP-spraying flood.
+ *
+ * Rejections get 429 with a Retry-After header (seconds).
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final List<Limiter> limiters = new ArrayList<>();
+
+    @PostConstruct
+    private void initLimiters() {
+        for (Map.Entry<String, RateLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+            RateLimitProperties.Route route = entry.getValue();
+            if (route.getPath() == null || route.getRequestsPerSecond() <= 0) {
+                throw new IllegalStateException("rate-limit.routes." + entry.getKey()
+                        + " needs a path and a positive requests-per-second");
+            }
+            Counter rejected = Counter.builder("rate_limit.rejected")
+                    .description("Requests rejected with 429, by limited route")
+                    .tag("route", entry.getKey())
+                    .register(meterRegistry);
+            limiters.add(new Limiter(route, rejected));
+        }
+        Gauge.builder("rate_limit.buckets", limiters,
+                list -> list.stream().mapToInt(limiter -> limiter.buckets.size()).sum())
+                .description("Client buckets currently tracked across all limited routes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Limiter limiter = properties.isEnabled() ? match(request) : null;
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = limiter.acquire(clientKey(request), System.nanoTime(), properties.getMaxBuckets());
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        limiter.rejected.increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too many requests, retry in " + retryAfterSeconds + "s",
+                LocalDateTime.now()));
+    }
+
+    /**
+     * Drops buckets that have been idle (i.e. full again) for idle-timeout.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:60s}")
+    public void evictIdleBuckets() {
+        long cutoff = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        for (Limiter limiter : limiters) {
+            limiter.buckets.values().removeIf(arrival -> arrival.get() - cutoff < 0);
+        }
+    }
+
+    private Limiter match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Limiter limiter : limiters) {
+            String method = limiter.route.getMethod();
+            if ((method.isEmpty() || method.equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(limiter.route.getPath(), path)) {
+                return limiter;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "user:" + auth.getName();
+        }
+        String header = properties.getClientIpHeader();
+        if (!header.isEmpty()) {
+            String forwarded = request.getHeader(header);
+            if (forwarded != null && !forwarded.isBlank()) {
+                // X-Forwarded-For style lists: the first entry is the original client
+                int comma = forwarded.indexOf(',');
+                return "ip:" + (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * GCRA limiter for one route. A request is admitted when pushing the
+     * bucket's arrival time one interval forward keeps it within burst
+     * intervals of now; otherwise the excess is how long the client must wait.
+     */
+    private static final class Limiter {
+        final RateLimitProperties.Route route;
+        final Counter rejected;
+        final long intervalNanos;
+        final long burstNanos;
+        final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        final AtomicLong overflow = new AtomicLong(System.nanoTime());
+
+        Limiter(RateLimitProperties.Route route, Counter rejected) {
+            this.route = route;
+            this.rejected = rejected;
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / route.getRequestsPerSecond());
+            this.burstNanos = intervalNanos * Math.max(1, route.getBurst());
+        }
+
+        /** Returns 0 if admitted, otherwise the nanoseconds until a request would be. */
+        long acquire(String key, long now, int maxBuckets) {
+            AtomicLong arrival = buckets.get(key);
+            if (arrival == null) {
+                arrival = buckets.size() < maxBuckets
+                        ? buckets.computeIfAbsent(key, k -> new AtomicLong(now))
+                        : overflow;
+            }
+            while (true) {
+                long current = arrival.get();
+                long next = (current - now > 0 ? current : now) + intervalNanos;
+                long excess = next - now - burstNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (arrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.codingmart.ecommerce.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-route rate limits bound from "rate-limit.*" in application.properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Header carrying the real client IP when running behind a proxy (the
+     * bundled nginx sets X-Real-IP). Empty means use the socket address —
+     * never trust a client-supplied header when no proxy overwrites it.
+     */
+    private String clientIpHeader = "";
+
+    /** Upper bound on tracked buckets per route; beyond it new clients share one bucket. */
+    private int maxBuckets = 100_000;
+
+    /** A bucket that has been full (idle) for this long is evicted. */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /** Limited routes by name; requests matching none are not limited. First match wins. */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+
+        /** HTTP method to match; empty matches any. */
+        private String method = "";
+
+        /** Ant-style path pattern, e.g. /api/products/search. */
+        private String path;
+
+        /** Sustained rate per client. */
+        private double requestsPerSecond;
+
+        /** Requests a client may send back-to-back before being throttled to the sustained rate. */
+        private int burst = 1;
+    }
+}
@@ -3,12 +3,14 @@ package com.codingmart.ecommerce.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -28,6 +30,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -43,18 +48,32 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable()) // Disable CSRF as we are using JWTs
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // No
                                                                                                               // sessions
+                // Missing, expired or revoked token → 401, which tells clients to refresh
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll() // Allow everyone to login/signup
+                        // Restocking changes what can be sold: admins only (security.admin-emails)
+                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/products/*/stock").hasRole("ADMIN")
+                        // Bulk import writes straight into the catalog: admins only
+                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/products/import").hasRole("ADMIN")
+                        // The export holds a DB connection while it streams: signed-in clients only
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/products/export").authenticated()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/products/**").permitAll() // Allow
                                                                                                                   // search/browse
-                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/products/sync").permitAll() // Allow
-                                                                                                                     // manual
-                                                                                                                     // ES
-                                                                                                                     // sync
+                        // A sync drops and rebuilds the search index: admins only
+                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/products/sync").hasRole("ADMIN")
+                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/products/batch").permitAll() // Batch
+                                                                                                                      // lookup
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll() // Probes & scraping
+                        // Actuator write/delete operations (e.g. changing log levels) are admin-only; reads need a token
+                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/actuator/**").hasRole("ADMIN")
+                        .requestMatchers(org.springframework.http.HttpMethod.DELETE, "/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated() // Everything else requires a token
                 )
                 // Add our Bouncer (Filter) before the standard username/password check
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Rate limit right after it, so signed-in clients are keyed by JWT subject
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
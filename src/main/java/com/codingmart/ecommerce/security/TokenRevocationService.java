@@ -0,0 +1,213 @@
+package com.codingmart.ecommerce.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token revocation, in two halves.
+ *
+ * Refresh tokens are only ever checked on /api/auth/refresh, so they are
+ * revoked in MySQL alone: inserting the jti into revoked_tokens (primary key)
+ * is the single-use check across nodes, and nothing is held in memory.
+ *
+ * Access tokens are checked on every authenticated request, without I/O.
+ * Their revoked ids live in memory: an immutable {@link RevocationSet} behind
+ * a volatile field (a UUID parse plus a Bloom filter probe per check) plus a
+ * small concurrent overlay of ids revoked since the set was last built. A
+ * logout only adds to the overlay; the set is rebuilt on the poll thread,
+ * at most once per poll, and ids whose token has expired are dropped then.
+ * Since access tokens live jwt.access-token-ttl, the set holds roughly one
+ * TTL's worth of logouts.
+ *
+ * Other nodes' access-token revocations arrive by polling every
+ * jwt.revocation.poll-interval for rows whose revoked_at (database clock) is
+ * at or after the newest one seen, minus jwt.revocation.poll-overlap to
+ * catch transactions that committed late; re-reading a row is harmless.
+ * Every jwt.revocation.full-reload-interval the set is reloaded from scratch.
+ * So a token revoked on another node stops working within one poll
+ * interval; on the revoking node, at once.
+ *
+ * Request threads never take a lock here. If a poll fails the current set
+ * stays in use and the next poll catches up.
+ */
+@Component
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO revoked_tokens (jti, token_type, expires_at, revoked_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP(6))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.revocation.poll-overlap:30s}")
+    private Duration pollOverlap;
+
+    @Value("${jwt.revocation.full-reload-interval:1h}")
+    private Duration fullReloadInterval;
+
+    /** Access-token ids in {@link #current} → expiry (epoch millis). Poll thread only. */
+    private final Map<UUID, Long> revoked = new HashMap<>();
+
+    /** Access-token ids revoked or polled but not yet in {@link #current}. */
+    private final ConcurrentHashMap<UUID, Long> overlay = new ConcurrentHashMap<>();
+
+    private volatile RevocationSet current = RevocationSet.EMPTY;
+
+    /** Newest revoked_at read so far (database clock). Poll thread only. */
+    private Timestamp cursor = new Timestamp(0);
+    private long lastFullReload;
+
+    private Counter pollFailures;
+
+    @PostConstruct
+    private void initMetrics() {
+        Gauge.builder("security.revoked_tokens", this, TokenRevocationService::size)
+                .description("Revoked access-token ids held in memory")
+                .register(meterRegistry);
+        pollFailures = Counter.builder("security.revoked_tokens.poll.failures")
+                .description("Polls of revoked_tokens that failed (previous set kept)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * True if the access token id has been revoked. Ids that are not UUIDs
+     * were not issued by this service and count as revoked.
+     */
+    public boolean isRevoked(String jti) {
+        UUID id;
+        try {
+            id = UUID.fromString(jti);
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+        return current.contains(id.getMostSignificantBits(), id.getLeastSignificantBits())
+                || (!overlay.isEmpty() && overlay.containsKey(id));
+    }
+
+    public int size() {
+        return current.size() + overlay.size();
+    }
+
+    /**
+     * Revokes an access token until its expiry; effective on this node at
+     * once, on the others after their next poll.
+     */
+    public void revokeAccessToken(String jti, Date expiresAt) {
+        UUID id = UUID.fromString(jti);
+        insert(jti, JwtUtil.TYPE_ACCESS, expiresAt);
+        overlay.put(id, expiresAt.getTime());
+    }
+
+    /**
+     * Marks a refresh token as used (or logged out). Returns false if it was
+     * already — the primary key makes this a reliable single-use check
+     * across nodes. Nothing is kept in memory.
+     */
+    public boolean consumeRefreshToken(String jti, Date expiresAt) {
+        UUID.fromString(jti);
+        return insert(jti, JwtUtil.TYPE_REFRESH, expiresAt);
+    }
+
+    private boolean insert(String jti, String type, Date expiresAt) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, jti, type, new Timestamp(expiresAt.getTime()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        poll();
+    }
+
+    /**
+     * Reads new access-token revocations (outside any lock shared with
+     * request threads), then folds them and the overlay into a new set.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval:5s}",
+            initialDelayString = "${jwt.revocation.poll-interval:5s}")
+    public synchronized void poll() {
+        long now = System.currentTimeMillis();
+        boolean full = lastFullReload == 0 || now - lastFullReload >= fullReloadInterval.toMillis();
+        Map<UUID, Long> rows = new HashMap<>();
+        Timestamp[] newest = {cursor};
+        try {
+            String sql = "SELECT jti, expires_at, revoked_at FROM revoked_tokens WHERE token_type = ? AND "
+                    + (full ? "expires_at > ?" : "revoked_at >= ?");
+            Timestamp from = full ? new Timestamp(now) : new Timestamp(cursor.getTime() - pollOverlap.toMillis());
+            jdbcTemplate.query(sql, rs -> {
+                rows.put(UUID.fromString(rs.getString("jti")), rs.getTimestamp("expires_at").getTime());
+                Timestamp revokedAt = rs.getTimestamp("revoked_at");
+                if (revokedAt.after(newest[0])) {
+                    newest[0] = revokedAt;
+                }
+            }, JwtUtil.TYPE_ACCESS, from);
+        } catch (RuntimeException e) {
+            pollFailures.increment();
+            logger.warn("Polling revoked tokens failed: {}", e.getMessage());
+            full = false;
+        }
+        cursor = newest[0];
+        if (full) {
+            revoked.clear();
+            lastFullReload = now;
+        }
+        int before = revoked.size();
+        revoked.putAll(rows);
+        Map<UUID, Long> merged = new HashMap<>(overlay);
+        revoked.putAll(merged);
+        boolean changed = full || revoked.size() != before;
+        if (revoked.values().removeIf(expiresAt -> expiresAt < now)) {
+            changed = true;
+        }
+        if (changed) {
+            current = RevocationSet.of(revoked.keySet());
+        }
+        // Only after the new set is visible: drop what it now contains
+        for (Iterator<Map.Entry<UUID, Long>> it = merged.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<UUID, Long> entry = it.next();
+            overlay.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /** Deletes rows of tokens that have expired anyway. */
+    @Scheduled(fixedDelayString = "${jwt.revocation.cleanup-interval:1h}",
+            initialDelayString = "${jwt.revocation.cleanup-interval:1h}")
+    public void deleteExpired() {
+        try {
+            int deleted = jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < ?",
+                    new Timestamp(System.currentTimeMillis()));
+            logger.debug("Deleted {} expired token revocation(s)", deleted);
+        } catch (RuntimeException e) {
+            logger.warn("Deleting expired token revocations failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.codingmart.ecommerce.service;
+
+import com.codingmart.ecommerce.cart.CartStore;
+import com.codingmart.ecommerce.dto.CartResponse;
+import com.codingmart.ecommerce.entity.Product;
+import com.codingmart.ecommerce.event.OrderPlacedEvent;
+import com.codingmart.ecommerce.exception.BadRequestException;
+import com.codingmart.ecommerce.exception.ResourceNotFoundException;
+import com.codingmart.ecommerce.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for the logged-in user's shopping cart.
+ *
+ * Cart contents come from {@link CartStore} (memory, persisted behind the
+ * scenes); names and prices are looked up for the whole cart with one
+ * batched product query, so they always reflect the current catalog.
+ */
+@Service
+public class CartService {
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /** Kept at or below products.batch.max-size so one batch lookup prices a cart. */
+    @Value("${cart.max-lines:100}")
+    private int maxLines;
+
+    @Value("${cart.max-quantity:99}")
+    private int maxQuantity;
+
+    /**
+     * Returns the user's cart with current prices.
+     */
+    public CartResponse getCart(String user) {
+        return price(cartStore.read(user));
+    }
+
+    /**
+     * The user's cart lines (product id → quantity), unpriced.
+     */
+    public Map<Long, Integer> lines(String user) {
+        return cartStore.read(user);
+    }
+
+    /**
+     * Adds quantity of a product to the cart (quantities of an existing line
+     * are summed, capped at cart.max-quantity). A quantity outside
+     * 1..cart.max-quantity is rejected, as in updateItem.
+     */
+    public CartResponse addItem(String user, Long productId, int quantity) {
+        if (productId == null) {
+            throw new BadRequestException("productId is required");
+        }
+        if (quantity < 1 || quantity > maxQuantity) {
+            throw new BadRequestException("quantity must be between 1 and " + maxQuantity);
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+        return price(cartStore.update(user, lines -> {
+            Integer current = lines.get(productId);
+            if (current == null && lines.size() >= maxLines) {
+                throw new BadRequestException("A cart holds at most " + maxLines + " different products");
+            }
+            // Summed as long so a large cart.max-quantity cannot overflow
+            lines.put(productId, (int) Math.min(maxQuantity, (current == null ? 0L : current) + quantity));
+        }));
+    }
+
+    /**
+     * Sets the quantity of a line already in the cart; 0 removes it.
+     */
+    public CartResponse updateItem(String user, Long productId, int quantity) {
+        if (quantity < 0 || quantity > maxQuantity) {
+            throw new BadRequestException("quantity must be between 0 and " + maxQuantity);
+        }
+        return price(cartStore.update(user, lines -> {
+            if (!lines.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product " + productId + " is not in the cart");
+            }
+            if (quantity == 0) {
+                lines.remove(productId);
+            } else {
+                lines.put(productId, quantity);
+            }
+        }));
+    }
+
+    /**
+     * Removes a product from the cart (no-op if it is not there).
+     */
+    public CartResponse removeItem(String user, Long productId) {
+        return price(cartStore.update(user, lines -> lines.remove(productId)));
+    }
+
+    /**
+     * Empties the cart.
+     */
+    public CartResponse clear(String user) {
+        return price(cartStore.update(user, Map::clear));
+    }
+
+    /**
+     * Drops the ordered products from the cart once an order placed from it
+     * has committed.
+     */
+    @Async
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.isFromCart()) {
+            cartStore.update(event.getUserEmail(), lines -> event.getProductIds().forEach(lines::remove));
+        }
+    }
+
+    private CartResponse price(Map<Long, Integer> lines) {
+        if (lines.isEmpty()) {
+            return new CartResponse(List.of(), 0, BigDecimal.ZERO);
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productService.getProductsByIds(new ArrayList<>(lines.keySet())).getProducts()) {
+            products.put(product.getProductId(), product);
+        }
+
+        List<CartResponse.CartLine> items = new ArrayList<>(lines.size());
+        int totalQuantity = 0;
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            Product product = products.get(line.getKey());
+            if (product == null) {
+                continue; // deleted since it was added
+            }
+            BigDecimal lineTotal = product.getProductPrice().multiply(BigDecimal.valueOf(line.getValue()));
+            items.add(new CartResponse.CartLine(product.getProductId(), product.getProductName(),
+                    product.getImageUrl(), product.getProductPrice(), line.getValue(), lineTotal));
+            totalQuantity += line.getValue();
+            subtotal = subtotal.add(lineTotal);
+        }
+        return new CartResponse(items, totalQuantity, subtotal);
+    }
+}
@@ -7,12 +7,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 /**
  * Service class for managing Category business logic.
  * This acts as the bridge between the Controller and the Repository.
+ *
+ * Reads are served from {@link CategorySnapshot}; writes go to MySQL, bump the
+ * shared category version and refresh the snapshot after commit.
  */
 @Service
 public class CategoryService {
@@ -20,38 +24,47 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
     /**
-     * Retrieves all categories from the database (original list).
+     * Retrieves all categories (from the in-memory snapshot).
      */
     public List<Category> getAllCategoriesList() {
-        return categoryRepository.findAll();
+        return categorySnapshot.all();
     }
 
     /**
-     * Retrieves categories with pagination.
+     * Retrieves categories with pagination (from the in-memory snapshot).
      */
     public Page<Category> getAllCategories(Pageable pageable) {
-        return categoryRepository.findAll(pageable);
+        return categorySnapshot.page(pageable);
     }
 
     /**
-     * Finds a single category by its ID.
+     * Finds a single category by its ID. Falls back to the database for an id
+     * another node created since this node's last version poll.
      */
     public Category getCategoryById(Long id) {
-        return categoryRepository.findById(id)
+        return categorySnapshot.find(id)
+                .or(() -> categoryRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
     }
 
     /**
      * Creates a new category.
      */
+    @Transactional
     public Category createCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryChanged();
+        return saved;
     }
 
     /**
      * Updates an existing category.
      */
+    @Transactional
     public Category updateCategory(Long id, Category categoryDetails) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
@@ -59,16 +72,25 @@ public class CategoryService {
         category.setCategoryName(categoryDetails.getCategoryName());
         // Update other fields if they exist in the future
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryChanged();
+        return saved;
     }
 
     /**
      * Deletes a category by its ID.
      */
+    @Transactional
     public void deleteCategory(Long id) {
         if (!categoryRepository.existsById(id)) {
             throw new ResourceNotFoundException("Category not found with id: " + id);
         }
         categoryRepository.deleteById(id);
+        categoryChanged();
+    }
+
+    private void categoryChanged() {
+        categorySnapshot.bumpVersion();
+        categorySnapshot.reloadAfterCommit();
     }
 }
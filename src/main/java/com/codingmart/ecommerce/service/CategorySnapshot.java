@@ -0,0 +1,196 @@
+package com.codingmart.ecommerce.service;
+
+import com.codingmart.ecommerce.entity.CatalogVersion;
+import com.codingmart.ecommerce.entity.Category;
+import com.codingmart.ecommerce.event.CategoriesChangedEvent;
+import com.codingmart.ecommerce.repository.CatalogVersionRepository;
+import com.codingmart.ecommerce.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable in-memory copy of the (tiny, rarely changing) categories table.
+ *
+ * Category lists, pages and id lookups are served from here without touching
+ * MySQL. The snapshot is an id-sorted array plus an id → category map, built
+ * off to the side and swapped in with one volatile write, so readers never
+ * lock and never see a half-built copy.
+ *
+ * Freshness:
+ * - On this node, CategoryService bumps the "categories" row in
+ *   catalog_versions inside its write transaction and calls
+ *   {@link #reloadAfterCommit()}.
+ * - Other nodes notice the bumped version on their next poll
+ *   (catalog.snapshot.poll-interval) and reload.
+ * Every reload publishes {@link CategoriesChangedEvent} so derived views
+ * (the search category dictionary) rebuild from the new snapshot.
+ */
+@Component
+public class CategorySnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorySnapshot.class);
+
+    static final String VERSION_NAME = "categories";
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile State state;
+
+    /** All categories ordered by id. The returned list is unmodifiable. */
+    public List<Category> all() {
+        return current().list;
+    }
+
+    public Optional<Category> find(Long id) {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    /** Same ordering as the unsorted findAll(pageable) it replaces: by id. */
+    public Page<Category> page(Pageable pageable) {
+        List<Category> list = current().list;
+        int from = (int) Math.min(pageable.getOffset(), list.size());
+        int to = Math.min(from + pageable.getPageSize(), list.size());
+        return new PageImpl<>(list.subList(from, to), pageable, list.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Reloads once the surrounding transaction commits (immediately when
+     * there is none), so the snapshot never shows uncommitted rows.
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    /**
+     * Cheap poll of the version row; reloads only when another node (or a
+     * manual SQL change that bumped it) moved it.
+     */
+    @Scheduled(fixedDelayString = "${catalog.snapshot.poll-interval:5s}")
+    public void pollVersion() {
+        try {
+            State current = state;
+            if (current == null || readVersion() != current.version) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot; try again on the next poll.
+            logger.warn("Category snapshot version poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bumps the shared version. Must run inside the writer's transaction.
+     */
+    void bumpVersion() {
+        if (catalogVersionRepository.increment(VERSION_NAME) == 0) {
+            CatalogVersion row = new CatalogVersion();
+            row.setName(VERSION_NAME);
+            row.setVersion(1);
+            catalogVersionRepository.save(row);
+        }
+    }
+
+    private State current() {
+        State current = state;
+        return current != null ? current : reload();
+    }
+
+    private synchronized State reload() {
+        // Version first: a write landing between the two reads is picked up by the next poll
+        long version = readVersion();
+        Category[] categories = categoryRepository.findAll().stream()
+                .map(CategorySnapshot::copy)
+                .sorted(Comparator.comparing(Category::getCategoryId))
+                .toArray(Category[]::new);
+        Map<Long, Category> byId = new HashMap<>(categories.length * 2);
+        for (Category category : categories) {
+            byId.put(category.getCategoryId(), category);
+        }
+        State fresh = new State(version, Collections.unmodifiableList(Arrays.asList(categories)), byId);
+        state = fresh;
+        logger.debug("Category snapshot loaded: {} categories at version {}", categories.length, version);
+        eventPublisher.publishEvent(new CategoriesChangedEvent());
+        return fresh;
+    }
+
+    private long readVersion() {
+        return catalogVersionRepository.findById(VERSION_NAME)
+                .map(CatalogVersion::getVersion)
+                .orElseGet(this::initVersion);
+    }
+
+    private long initVersion() {
+        try {
+            CatalogVersion row = new CatalogVersion();
+            row.setName(VERSION_NAME);
+            row.setVersion(0);
+            catalogVersionRepository.save(row);
+        } catch (DataIntegrityViolationException e) {
+            // Another node created it first
+        }
+        return 0;
+    }
+
+    /** Detached copy, so nothing in a persistence context shares the snapshot's objects. */
+    private static Category copy(Category source) {
+        Category category = new Category();
+        category.setCategoryId(source.getCategoryId());
+        category.setCategoryName(source.getCategoryName());
+        category.setCategoryDescription(source.getCategoryDescription());
+        category.setCreatedAt(source.getCreatedAt());
+        return category;
+    }
+
+    private static final class State {
+        final long version;
+        final List<Category> list;
+        final Map<Long, Category> byId;
+
+        State(long version, List<Category> list, Map<Long, Category> byId) {
+            this.version = version;
+            this.list = list;
+            this.byId = byId;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.codingmart.ecommerce.service;
+
+import com.codingmart.ecommerce.dto.OrderRequest;
+import com.codingmart.ecommerce.dto.OrderResponse;
+import com.codingmart.ecommerce.dto.ProductBatchResponse;
+import com.codingmart.ecommerce.entity.Order;
+import com.codingmart.ecommerce.entity.Product;
+import com.codingmart.ecommerce.event.OrderPlacedEvent;
+import com.codingmart.ecommerce.exception.BadRequestException;
+import com.codingmart.ecommerce.exception.ResourceNotFoundException;
+import com.codingmart.ecommerce.exception.ServiceBusyException;
+import com.codingmart.ecommerce.inventory.Reservation;
+import com.codingmart.ecommerce.inventory.StockService;
+import com.codingmart.ecommerce.order.OrderWriter;
+import com.codingmart.ecommerce.order.PendingOrder;
+import com.codingmart.ecommerce.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service for checkout.
+ *
+ * placeOrder prices the lines with one batched product lookup, reserves the
+ * stock, and hands the order to {@link OrderWriter}, which commits it
+ * together with other concurrent checkouts. Once the commit is known the
+ * reservations are confirmed (or, on failure, cancelled) and an
+ * {@link OrderPlacedEvent} is published for the asynchronous follow-up
+ * work (cart cleanup, notifications).
+ */
+@Service
+public class OrderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private OrderWriter orderWriter;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.write-timeout:5s}")
+    private Duration writeTimeout;
+
+    private Counter compensatedCounter;
+    private Counter oversoldCounter;
+
+    @PostConstruct
+    private void initMetrics() {
+        compensatedCounter = Counter.builder("orders.stock.compensations")
+                .description("Committed order lines whose reservation had expired; units taken off sale again")
+                .register(meterRegistry);
+        oversoldCounter = Counter.builder("orders.stock.oversold")
+                .description("Units sold by committed orders that could not be taken off sale again")
+                .baseUnit("units")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Places an order for the given items, or for the whole cart when the
+     * request has none.
+     */
+    public OrderResponse placeOrder(String user, OrderRequest request) {
+        boolean fromCart = request == null || request.getItems() == null || request.getItems().isEmpty();
+        Map<Long, Integer> wanted = fromCart ? cartService.lines(user) : merge(request.getItems());
+        if (wanted.isEmpty()) {
+            throw new BadRequestException("Nothing to order: " + (fromCart ? "the cart is empty" : "no items"));
+        }
+
+        ProductBatchResponse priced = productService.getProductsByIds(new ArrayList<>(wanted.keySet()));
+        if (!priced.getMissingIds().isEmpty()) {
+            throw new ResourceNotFoundException("Products not found: " + priced.getMissingIds());
+        }
+
+        List<PendingOrder.Line> lines = new ArrayList<>(wanted.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (Product product : priced.getProducts()) {
+            int quantity = wanted.get(product.getProductId());
+            lines.add(new PendingOrder.Line(product.getProductId(), product.getProductName(),
+                    product.getProductPrice(), quantity));
+            total = total.add(product.getProductPrice().multiply(BigDecimal.valueOf(quantity)));
+        }
+
+        List<Reservation> held = reserveAll(user, lines);
+        PendingOrder order = new PendingOrder(user, new Timestamp(System.currentTimeMillis()), total, lines);
+        CompletableFuture<Long> committed;
+        try {
+            committed = orderWriter.submit(order);
+        } catch (RuntimeException e) {
+            cancelAll(user, held);
+            throw e;
+        }
+
+        // Settle the reservations whenever the write finishes, even if this request has timed out by then
+        CompletableFuture<Long> settled = committed.whenComplete((orderId, error) -> {
+            if (error != null) {
+                cancelAll(user, held);
+                return;
+            }
+            for (Reservation reservation : held) {
+                try {
+                    stockService.confirm(user, reservation.getId());
+                } catch (RuntimeException e) {
+                    compensate(orderId, reservation, e);
+                }
+            }
+            eventPublisher.publishEvent(new OrderPlacedEvent(orderId, user, new ArrayList<>(wanted.keySet()), fromCart));
+        });
+
+        Long orderId = await(settled);
+        List<OrderResponse.Line> items = new ArrayList<>(lines.size());
+        for (PendingOrder.Line line : lines) {
+            items.add(toLine(line.getProductId(), line.getProductName(), line.getUnitPrice(), line.getQuantity()));
+        }
+        return new OrderResponse(orderId, OrderWriter.STATUS_PLACED, total, order.getCreatedAt(), items);
+    }
+
+    /**
+     * Returns one of the user's orders with its items.
+     */
+    public OrderResponse getOrder(String user, Long orderId) {
+        Order order = orderRepository.findByOrderIdAndUserEmail(orderId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        List<OrderResponse.Line> items = new ArrayList<>(order.getItems().size());
+        order.getItems().forEach(item -> items.add(
+                toLine(item.getProductId(), item.getProductName(), item.getUnitPrice(), item.getQuantity())));
+        return new OrderResponse(order.getOrderId(), order.getStatus(), order.getTotalAmount(),
+                order.getCreatedAt(), items);
+    }
+
+    private static Map<Long, Integer> merge(List<OrderRequest.Item> items) {
+        Map<Long, Integer> wanted = new LinkedHashMap<>();
+        for (OrderRequest.Item item : items) {
+            if (item.getProductId() == null || item.getQuantity() < 1) {
+                throw new BadRequestException("Every item needs a productId and a quantity of at least 1");
+            }
+            wanted.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return wanted;
+    }
+
+    /** Reserves every line or none: on the first shortage the earlier ones are released. */
+    private List<Reservation> reserveAll(String user, List<PendingOrder.Line> lines) {
+        List<Reservation> held = new ArrayList<>(lines.size());
+        try {
+            for (PendingOrder.Line line : lines) {
+                held.add(stockService.reserve(user, line.getProductId(), line.getQuantity()));
+            }
+        } catch (RuntimeException e) {
+            cancelAll(user, held);
+            throw e;
+        }
+        return held;
+    }
+
+    /**
+     * The order is committed but its reservation is gone (expired while the
+     * write was queued), so its units were put back on sale. The sale still
+     * stands: take the units off sale again, and report any that other
+     * buyers got in the meantime — those are oversold and need handling.
+     */
+    private void compensate(Long orderId, Reservation reservation, RuntimeException cause) {
+        try {
+            long oversold = stockService.recordUnreservedSale(reservation.getProductId(), reservation.getQuantity());
+            if (oversold == 0) {
+                compensatedCounter.increment();
+                logger.error("Order {}: reservation {} could not be confirmed ({}); {} unit(s) of product {} "
+                                + "taken off sale again", orderId, reservation.getId(), cause.getMessage(),
+                        reservation.getQuantity(), reservation.getProductId());
+            } else {
+                oversoldCounter.increment(oversold);
+                logger.error("Order {}: reservation {} could not be confirmed ({}); product {} OVERSOLD by {} unit(s)",
+                        orderId, reservation.getId(), cause.getMessage(), reservation.getProductId(), oversold);
+            }
+        } catch (RuntimeException e) {
+            oversoldCounter.increment(reservation.getQuantity());
+            logger.error("Order {}: reservation {} could not be confirmed ({}) and {} unit(s) of product {} "
+                            + "could not be re-taken: {}", orderId, reservation.getId(), cause.getMessage(),
+                    reservation.getQuantity(), reservation.getProductId(), e.getMessage());
+        }
+    }
+
+    private void cancelAll(String user, List<Reservation> held) {
+        for (Reservation reservation : held) {
+            try {
+                stockService.cancel(user, reservation.getId());
+            } catch (RuntimeException e) {
+                // Already expired: the units are back on sale anyway
+            }
+        }
+    }
+
+    private Long await(CompletableFuture<Long> settled) {
+        try {
+            return settled.get(writeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceBusyException("The order is still being processed; check your orders before retrying");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Checkout interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static OrderResponse.Line toLine(Long productId, String name, BigDecimal unitPrice, int quantity) {
+        return new OrderResponse.Line(productId, name, unitPrice, quantity,
+                unitPrice.multiply(BigDecimal.valueOf(quantity)));
+    }
+}
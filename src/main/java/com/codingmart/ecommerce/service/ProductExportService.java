@@ -0,0 +1,191 @@
+package com.codingmart.ecommerce.service;
+
+import com.codingmart.ecommerce.exception.ServiceBusyException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the catalog as NDJSON (one product per line), optionally gzipped.
+ *
+ * Rows come from a forward-only JDBC cursor — with MySQL Connector/J a fetch
+ * size of Integer.MIN_VALUE makes the driver stream rows instead of buffering
+ * the whole result — and are written field by field with a Jackson
+ * JsonGenerator straight to the response stream. Nothing per-catalog is held
+ * in memory, so heap use is the same for a hundred products or ten million.
+ * Output is flushed every export.flush-rows rows, so the client receives
+ * chunks while the query is still running.
+ *
+ * An export holds a pooled connection for as long as the client keeps
+ * reading, so at most export.max-concurrent run at once on this node; a
+ * request beyond that gets 503 straight away instead of taking another
+ * connection from the pool that serves every other request.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportService.class);
+
+    private static final String BASE_SQL = "SELECT p.product_id, p.product_name, p.product_description, p.product_price, "
+            + "p.image_url, p.created_at, p.updated_at, c.category_id, c.category_name "
+            + "FROM products p JOIN categories c ON c.category_id = p.category_id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    @Value("${export.flush-rows:1000}")
+    private int flushRows;
+
+    @Value("${export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    private Semaphore slots;
+
+    /** Separate from the shared JdbcTemplate: streaming fetch size only applies here. */
+    private JdbcTemplate streamingJdbcTemplate;
+
+    @PostConstruct
+    private void init() {
+        streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate.setFetchSize(fetchSize);
+        slots = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Takes an export slot now, on the request thread, so a busy node answers
+     * 503 before any response is written, and returns the body that runs the
+     * export and gives the slot back.
+     */
+    public StreamingResponseBody prepareExport(Long categoryId, Instant updatedSince, boolean gzip) {
+        if (!slots.tryAcquire()) {
+            throw new ServiceBusyException("Too many catalog exports in progress, please retry later");
+        }
+        return out -> {
+            try {
+                export(out, categoryId, updatedSince, gzip);
+            } finally {
+                slots.release();
+            }
+        };
+    }
+
+    /**
+     * Writes every matching product to the stream, ordered by id. Both filters
+     * are optional. The stream is finished (and the gzip trailer written) but
+     * not closed — the servlet container owns it.
+     */
+    public void export(OutputStream out, Long categoryId, Instant updatedSince, boolean gzip) throws IOException {
+        StringBuilder sql = new StringBuilder(BASE_SQL);
+        List<Object> args = new ArrayList<>(2);
+        String glue = " WHERE ";
+        if (categoryId != null) {
+            sql.append(glue).append("p.category_id = ?");
+            args.add(categoryId);
+            glue = " AND ";
+        }
+        if (updatedSince != null) {
+            sql.append(glue).append("p.updated_at >= ?");
+            args.add(Timestamp.from(updatedSince));
+        }
+        sql.append(" ORDER BY p.product_id");
+
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, 64 * 1024, true) : null;
+        OutputStream target = gzip ? gzipOut : out;
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(target)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null); // each line ends with its own '\n'
+            try {
+                streamingJdbcTemplate.query(sql.toString(), rs -> {
+                    writeRow(json, rs);
+                    if (++rows[0] % flushRows == 0) {
+                        flush(json, gzipOut);
+                    }
+                }, args.toArray());
+            } catch (UncheckedIOException e) {
+                // Client went away mid-export; the cursor is already closed by JdbcTemplate
+                throw e.getCause();
+            }
+            json.flush();
+        }
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        out.flush();
+        logger.info("Exported {} products in {} ms (gzip={})", rows[0], (System.nanoTime() - start) / 1_000_000, gzip);
+    }
+
+    private static void writeRow(JsonGenerator json, ResultSet rs) throws SQLException {
+        try {
+            json.writeStartObject();
+            json.writeStringField("id", Long.toString(rs.getLong("product_id")));
+            json.writeStringField("productName", rs.getString("product_name"));
+            json.writeStringField("productDescription", rs.getString("product_description"));
+            BigDecimal price = rs.getBigDecimal("product_price");
+            json.writeFieldName("productPrice");
+            if (price != null) {
+                json.writeNumber(price);
+            } else {
+                json.writeNull();
+            }
+            json.writeStringField("imageUrl", rs.getString("image_url"));
+            json.writeNumberField("categoryId", rs.getLong("category_id"));
+            json.writeStringField("categoryName", rs.getString("category_name"));
+            writeTimestamp(json, "createdAt", rs.getTimestamp("created_at"));
+            writeTimestamp(json, "updatedAt", rs.getTimestamp("updated_at"));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeTimestamp(JsonGenerator json, String field, Timestamp value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeStringField(field, value.toInstant().toString());
+        }
+    }
+
+    /** Pushes buffered lines through gzip (sync flush) to the client as one chunk. */
+    private static void flush(JsonGenerator json, GZIPOutputStream gzipOut) {
+        try {
+            json.flush();
+            if (gzipOut != null) {
+                gzipOut.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
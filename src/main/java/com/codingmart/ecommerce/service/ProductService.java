@@ -1,24 +1,64 @@
 package com.codingmart.ecommerce.service;
 
 import com.codingmart.ecommerce.document.ProductDocument;
+import com.codingmart.ecommerce.dto.ProductBatchResponse;
+import com.codingmart.ecommerce.entity.Category;
 import com.codingmart.ecommerce.entity.Product;
+import com.codingmart.ecommerce.event.CatalogReindexedEvent;
+import com.codingmart.ecommerce.exception.BadRequestException;
 import com.codingmart.ecommerce.exception.ResourceNotFoundException;
 import com.codingmart.ecommerce.repository.ProductRepository;
+import com.codingmart.ecommerce.repository.ProductSpecifications;
 import com.codingmart.ecommerce.repository.elastic.ProductElasticRepository;
+import com.codingmart.ecommerce.search.CategoryDictionary;
+import com.codingmart.ecommerce.search.ElasticsearchGuard;
+import com.codingmart.ecommerce.search.LocalProductIndex;
+import com.codingmart.ecommerce.search.QueryAnalytics;
+import com.codingmart.ecommerce.search.RelatedProductsIndex;
+import com.codingmart.ecommerce.search.SearchQuery;
+import com.codingmart.ecommerce.search.SearchProperties;
+import com.codingmart.ecommerce.search.SearchQueryParser;
+import com.codingmart.ecommerce.search.SearchSort;
+import com.codingmart.ecommerce.util.SingleFlight;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.data.elasticsearch.core.query.SourceFilter;
 import org.springframework.data.elasticsearch.core.query.StringQuery;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -26,17 +66,19 @@ import java.util.stream.Collectors;
  *
  * Smart Search Features:
  * 1. Multi-field: searches productName (^3 boost), categoryName (^2 boost),
- * productDescription.
+ * productDescription, analyzed with stemming/synonyms; fuzziness is a fallback.
  * → "books" finds items under "Books" category even if "book" is not in the
  * product name.
  * 2. Price-aware: "phones under 5000 rupees" extracts max price and applies
  * filter.
- * → Handles: under, below, less than, upto, max, cheaper than + optional
- * rs/INR/rupees
+ * → Parsing lives in {@link SearchQueryParser}: max/min prices, ranges,
+ * k/lakh units, rs/INR/rupees and sort intent ("cheapest").
  */
 @Service
 public class ProductService {
 
+  private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+
   @Autowired
   private ProductRepository productRepository;
 
@@ -46,21 +88,133 @@ public class ProductService {
   @Autowired
   private ElasticsearchOperations elasticsearchOperations;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private SearchQueryParser searchQueryParser;
+
+  @Autowired
+  private CategoryDictionary categoryDictionary;
+
+  @Autowired
+  private SearchProperties searchProperties;
+
+  @Autowired
+  private LocalProductIndex localProductIndex;
+
+  @Autowired
+  private ElasticsearchGuard elasticsearchGuard;
+
+  @Autowired
+  private QueryAnalytics queryAnalytics;
+
+  @Autowired
+  private RelatedProductsIndex relatedProductsIndex;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Value("${products.single-flight.follower-timeout:1s}")
+  private Duration followerTimeout;
+
+  @Value("${products.batch.max-size:100}")
+  private int maxBatchSize;
+
+  // Identical concurrent requests share one backend call (see SingleFlight)
+  private SingleFlight<String, Page<ProductDocument>> searchFlight;
+  private SingleFlight<Long, Product> productFlight;
+
+  // Result pages of Elasticsearch-answered searches; null when search.cache.enabled=false
+  private Cache<String, Page<ProductDocument>> searchCache;
+
+  // Search / sync meters — tag values are fixed enums, never user input.
+  private Timer plainSearchTimer;
+  private Timer priceSearchTimer;
+  private Timer browseTimer;
+  private Counter browseMysqlFallbackCounter;
+  private Timer esRoundTripTimer;
+  private DistributionSummary esTookSummary;
+  private Timer syncReadTimer;
+  private Timer syncConvertTimer;
+  private Timer syncDeleteTimer;
+  private Timer syncBulkTimer;
+  private Counter fuzzyFallbackCounter;
+  private Counter categoryFallbackCounter;
+  private Counter degradedSearchCounter;
+
+  @PostConstruct
+  private void initMeters() {
+    plainSearchTimer = searchTimer("plain");
+    priceSearchTimer = searchTimer("price_filtered");
+    browseTimer = searchTimer("browse");
+    browseMysqlFallbackCounter = Counter.builder("browse.mysql.fallback")
+        .description("Browse requests served from MySQL because Elasticsearch failed")
+        .register(meterRegistry);
+    esRoundTripTimer = Timer.builder("search.elasticsearch.roundtrip")
+        .description("Client-observed Elasticsearch search round trip")
+        .register(meterRegistry);
+    esTookSummary = DistributionSummary.builder("search.elasticsearch.took")
+        .description("Server-side 'took' reported by Elasticsearch")
+        .baseUnit("milliseconds")
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry);
+    syncReadTimer = syncTimer("read");
+    syncConvertTimer = syncTimer("convert");
+    syncDeleteTimer = syncTimer("delete");
+    syncBulkTimer = syncTimer("bulk");
+    fuzzyFallbackCounter = Counter.builder("search.fuzzy.fallback")
+        .description("Searches re-run with fuzziness after a thin first pass")
+        .register(meterRegistry);
+    categoryFallbackCounter = Counter.builder("search.category.fallback")
+        .description("Searches re-run without the inferred category after it matched nothing")
+        .register(meterRegistry);
+    degradedSearchCounter = Counter.builder("search.degraded")
+        .description("Searches answered by the local index because Elasticsearch failed")
+        .register(meterRegistry);
+    Gauge.builder("search.local_index.documents", localProductIndex, LocalProductIndex::size)
+        .description("Documents in the degraded-mode local product index")
+        .register(meterRegistry);
+    Gauge.builder("search.local_index.stale", localProductIndex, index -> index.isStale() ? 1 : 0)
+        .description("1 when products written since the last sync are missing from the local index")
+        .register(meterRegistry);
+    Gauge.builder("products.related.documents", relatedProductsIndex, RelatedProductsIndex::size)
+        .description("Products with a precomputed related-products entry")
+        .register(meterRegistry);
+    searchFlight = new SingleFlight<>("search", followerTimeout, meterRegistry);
+    productFlight = new SingleFlight<>("product_by_id", followerTimeout, meterRegistry);
+    SearchProperties.Cache cacheConfig = searchProperties.getCache();
+    if (cacheConfig.isEnabled()) {
+      searchCache = Caffeine.newBuilder()
+          .maximumSize(cacheConfig.getMaxEntries())
+          .expireAfterWrite(cacheConfig.getTtl())
+          .recordStats()
+          .build();
+      CaffeineCacheMetrics.monitor(meterRegistry, searchCache, "search.results");
+    }
+  }
+
+  private Timer searchTimer(String branch) {
+    return Timer.builder("search.requests")
+        .description("Product search latency by query branch")
+        .tag("branch", branch)
+        .register(meterRegistry);
+  }
+
+  private Timer syncTimer(String phase) {
+    return Timer.builder("catalog.sync")
+        .description("MySQL to Elasticsearch sync duration by phase")
+        .tag("phase", phase)
+        .register(meterRegistry);
+  }
+
   /**
-   * Price pattern: matches phrases like:
-   * "phones under 5000 rupees", "laptop below 50000 INR",
-   * "watches less than 2000", "jackets upto 3000 rs", "5000 or less"
+   * Search hits only carry what a product card renders; everything else in
+   * _source stays on the ES node.
    */
-  private static final Pattern PRICE_PATTERN = Pattern.compile(
-      "(?i)" +
-          "(?:" +
-          // Pattern A: "under 5000 [rupees/rs/INR]"
-          "(?:under|below|less\\s+than|within|cheaper\\s+than|upto|up\\s+to|max(?:imum)?|<)" +
-          "\\s*(?:rs\\.?|inr|rupees?)?\\s*([\\d,]+)(?:\\s*(?:rs\\.?|inr|rupees?))?" +
-          "|" +
-          // Pattern B: "5000 [rupees] or less / and below"
-          "([\\d,]+)\\s*(?:rs\\.?|inr|rupees?)?\\s*(?:or\\s+less|and\\s+below|max(?:imum)?)" +
-          ")");
+  private static final SourceFilter CARD_SOURCE_FILTER = new FetchSourceFilterBuilder()
+      .withIncludes("id", "productName", "productDescription", "productPrice", "imageUrl")
+      .build();
 
   // ─── Standard Product CRUD ────────────────────────────────────────────────
 
@@ -76,62 +230,360 @@ public class ProductService {
     return productRepository.findByProductPriceBetween(min, max, pageable);
   }
 
+  /**
+   * Concurrent lookups of the same id share one findById; a missing product
+   * fails every waiting caller with the same ResourceNotFoundException.
+   *
+   * The entity findById returns belongs to the leader's persistence context
+   * (dirty checking, lazy loading), so it is never handed to other threads:
+   * the leader copies it into a detached snapshot while still in its own
+   * session, and every caller gets a private copy of that snapshot.
+   */
   public Product getProductById(Long id) {
-    return productRepository.findById(id)
-        .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+    Product shared = productFlight.execute(id, () -> detachedCopy(productRepository.findById(id)
+        .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id))));
+    return detachedCopy(shared);
+  }
+
+  /** Field-by-field copy of a product and its category, attached to no persistence context. */
+  private static Product detachedCopy(Product source) {
+    Product copy = new Product();
+    copy.setProductId(source.getProductId());
+    copy.setProductName(source.getProductName());
+    copy.setProductDescription(source.getProductDescription());
+    copy.setProductPrice(source.getProductPrice());
+    copy.setImageUrl(source.getImageUrl());
+    copy.setCreatedAt(copyOf(source.getCreatedAt()));
+    copy.setUpdatedAt(copyOf(source.getUpdatedAt()));
+    copy.setStock(source.getStock());
+    copy.setVersion(source.getVersion());
+    Category category = source.getCategory();
+    if (category != null) {
+      Category categoryCopy = new Category();
+      categoryCopy.setCategoryId(category.getCategoryId());
+      categoryCopy.setCategoryName(category.getCategoryName());
+      categoryCopy.setCategoryDescription(category.getCategoryDescription());
+      categoryCopy.setCreatedAt(copyOf(category.getCreatedAt()));
+      copy.setCategory(categoryCopy);
+    }
+    return copy;
+  }
+
+  private static Timestamp copyOf(Timestamp timestamp) {
+    return timestamp != null ? (Timestamp) timestamp.clone() : null;
+  }
+
+  /**
+   * Loads many products in one query (findAllById with the category joined).
+   * Results keep the requested order with duplicate ids collapsed; ids that do
+   * not exist are reported instead of failing the whole batch.
+   */
+  public ProductBatchResponse getProductsByIds(List<Long> ids) {
+    if (ids == null || ids.isEmpty()) {
+      return new ProductBatchResponse(List.of(), List.of());
+    }
+    LinkedHashSet<Long> requested = new LinkedHashSet<>(ids);
+    requested.remove(null);
+    if (requested.size() > maxBatchSize) {
+      throw new BadRequestException("At most " + maxBatchSize + " ids per batch, got " + requested.size());
+    }
+
+    Map<Long, Product> found = new HashMap<>();
+    for (Product product : productRepository.findAllById(requested)) {
+      found.put(product.getProductId(), product);
+    }
+    List<Product> products = new ArrayList<>(found.size());
+    List<Long> missingIds = new ArrayList<>();
+    for (Long id : requested) {
+      Product product = found.get(id);
+      if (product != null) {
+        products.add(product);
+      } else {
+        missingIds.add(id);
+      }
+    }
+    return new ProductBatchResponse(products, missingIds);
+  }
+
+  /**
+   * Products most similar to the given one (shared name/description terms,
+   * same category), best first, from the table {@link RelatedProductsIndex}
+   * precomputes at every reindex: an in-memory lookup plus one batched query
+   * for the products themselves. Products deleted since the reindex are left
+   * out; products added since have no related products until the next one.
+   */
+  public List<Product> getRelatedProducts(Long id, int limit) {
+    List<Long> ids = relatedProductsIndex.relatedIds(id, Math.max(0, limit));
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return getProductsByIds(ids).getProducts();
   }
 
   // ─── Smart Elasticsearch Search ──────────────────────────────────────────
 
   /**
-   * Entry point: decides whether to do a plain multi-field search or a
-   * price-filtered search.
+   * Entry point: parses the raw query once, moves recognised category words
+   * into an exact category filter, and runs the search (timed as a plain or a
+   * price-filtered search). All ES calls of the request share one deadline
+   * (search.guard.timeout). If Elasticsearch fails, is too slow or the
+   * circuit is open, and the local index has been built, the same query is
+   * answered from {@link LocalProductIndex}.
+   *
+   * Concurrent requests that parse to the same query and page share one
+   * search, so ES load follows distinct queries rather than request count.
+   *
+   * An explicit sort (?sort=...) wins over a sort intent found in the text;
+   * null keeps the parsed one.
+   *
+   * Pages answered by Elasticsearch are cached (search.cache.*) until the
+   * next reindex or the TTL; every search is recorded in
+   * {@link QueryAnalytics}.
    */
-  public Page<ProductDocument> searchProducts(String rawQuery, Pageable pageable) {
+  public Page<ProductDocument> searchProducts(String rawQuery, SearchSort sort, Pageable pageable) {
     if (rawQuery == null || rawQuery.isBlank()) {
       return Page.empty(pageable);
     }
 
-    Matcher matcher = PRICE_PATTERN.matcher(rawQuery);
+    long start = System.nanoTime();
+    SearchQuery query = parseSearch(rawQuery, sort);
+    String key = searchKey(query, pageable);
+    Page<ProductDocument> cached = searchCache != null ? searchCache.getIfPresent(key) : null;
+    Page<ProductDocument> result = cached != null
+        ? cached
+        : searchFlight.execute(key, () -> runSearch(query, key, pageable));
+    queryAnalytics.record(query, rawQuery, result.getTotalElements(), System.nanoTime() - start);
+    return result;
+  }
 
-    if (matcher.find()) {
-      // Group 1: "under 5000" pattern. Group 2: "5000 or less" pattern.
-      String priceStr = (matcher.group(1) != null ? matcher.group(1) : matcher.group(2))
-          .replaceAll(",", "");
-      BigDecimal maxPrice = new BigDecimal(priceStr);
+  /**
+   * Runs a search only to (re)fill the cache, without counting it in the
+   * analytics. Used by the warmer after a reindex.
+   */
+  public void warmSearch(String rawQuery, SearchSort sort, int pageSize) {
+    if (searchCache == null) {
+      return;
+    }
+    SearchQuery query = parseSearch(rawQuery, sort);
+    Pageable pageable = PageRequest.of(0, pageSize);
+    String key = searchKey(query, pageable);
+    searchFlight.execute(key, () -> runSearch(query, key, pageable));
+  }
 
-      // Strip the matched price phrase from the query to get a clean keyword
-      String keyword = (rawQuery.substring(0, matcher.start()) + " " + rawQuery.substring(matcher.end()))
-          .replaceAll("(?i)\\b(rs\\.?|inr|rupees?)\\b", "")
-          .trim();
+  /** Entries in, and hit rate of, the search result cache. */
+  public long searchCacheSize() {
+    return searchCache != null ? searchCache.estimatedSize() : 0;
+  }
+
+  public double searchCacheHitRate() {
+    return searchCache != null ? searchCache.stats().hitRate() : 0;
+  }
+
+  private SearchQuery parseSearch(String rawQuery, SearchSort sort) {
+    SearchQuery parsed = categoryDictionary.resolve(searchQueryParser.parse(rawQuery));
+    return sort != null ? parsed.withSort(sort) : parsed;
+  }
 
-      return searchWithPriceFilter(keyword.isEmpty() ? null : keyword, maxPrice, pageable);
+  private static String searchKey(SearchQuery query, Pageable pageable) {
+    return query + "|" + pageable.getPageNumber() + "|" + pageable.getPageSize();
+  }
+
+  private Page<ProductDocument> runSearch(SearchQuery query, String key, Pageable pageable) {
+    Timer timer = query.hasPriceFilter() ? priceSearchTimer : plainSearchTimer;
+    long deadline = elasticsearchGuard.newDeadline();
+    try {
+      Page<ProductDocument> page = timer.record(() -> searchWithCategoryFallback(query, pageable, deadline));
+      if (searchCache != null) {
+        searchCache.put(key, page);
+      }
+      return page;
+    } catch (RuntimeException e) {
+      if (!localProductIndex.isReady()) {
+        throw e;
+      }
+      degradedSearchCounter.increment();
+      logger.warn("Elasticsearch search failed, serving from local index: {}", e.getMessage());
+      return localProductIndex.search(query, pageable);
     }
+  }
 
-    return searchMultiField(rawQuery, pageable);
+  /**
+   * A category read out of the keyword is only a guess: "sports shoes" names
+   * the Sports & Fitness category, but the shoes may be filed under Fashion.
+   * When the scoped search finds nothing, it is re-run once as typed, with the
+   * category words back in the keyword and no category filter.
+   */
+  private Page<ProductDocument> searchWithCategoryFallback(SearchQuery query, Pageable pageable, long deadline) {
+    Page<ProductDocument> page = searchWithFilters(query, pageable, deadline);
+    if (page.getTotalElements() == 0 && query.isCategoryInferred()) {
+      categoryFallbackCounter.increment();
+      page = searchWithFilters(query.withoutCategory(), pageable, deadline);
+    }
+    return page;
   }
 
   /**
-   * Multi-field fuzzy search across productName, categoryName, and
-   * productDescription.
+   * Multi-field search across productName, categoryName, and
+   * productDescription, plus exact constraints.
    * Boosts: productName^3, categoryName^2 — so category matches surface relevant
    * products.
-   * Uses ES AUTO fuzziness to handle typos.
+   *
+   * Two tiers: the first pass relies on index-time analysis (stemming, ASCII
+   * folding, synonyms, productName.trigram) and sends no fuzziness. Only when
+   * it finds fewer than search.fuzzy-fallback-min-hits results is the query
+   * re-run once with AUTO fuzziness to handle typos. Checking the total (not
+   * the page) keeps the chosen tier stable across pages.
+   *
+   * Price bounds and the dictionary-resolved category always sit in filter
+   * context, so ES caches them across queries and only the remaining words are
+   * scored. e.g., "books under 500" → term categoryName.keyword=Books +
+   * range productPrice<=500, no multi_match at all.
+   * A query that was only a sort intent ("cheapest") matches everything.
+   */
+  private Page<ProductDocument> searchWithFilters(SearchQuery query, Pageable pageable, long deadline) {
+    List<String> filters = new ArrayList<>(2);
+    if (query.hasPriceFilter()) {
+      filters.add(priceRange(query.getMinPrice(), query.getMaxPrice()));
+    }
+    if (query.hasCategory()) {
+      filters.add(categoryTerm(query.getCategory()));
+    }
+
+    if (!query.hasKeyword()) {
+      String jsonQuery = filters.isEmpty()
+          ? """
+              {"match_all": {}}
+              """
+          // No keyword — every product passing the filters, unscored
+          : """
+              {
+                "bool": {
+                  "filter": [%s]
+                }
+              }
+              """.formatted(String.join(", ", filters));
+      return executeSearch(jsonQuery, query.getSort(), pageable, deadline);
+    }
+
+    Page<ProductDocument> page = executeSearch(
+        withFilters(analyzedMatch(query.getKeyword()), filters), query.getSort(), pageable, deadline);
+
+    int minHits = searchProperties.getFuzzyFallbackMinHits();
+    if (page.getTotalElements() < minHits) {
+      fuzzyFallbackCounter.increment();
+      page = executeSearch(withFilters(fuzzyMatch(query.getKeyword()), filters), query.getSort(), pageable,
+          deadline);
+    }
+    return page;
+  }
+
+  private String withFilters(String textClause, List<String> filters) {
+    if (filters.isEmpty()) {
+      return textClause;
+    }
+    return """
+        {
+          "bool": {
+            "must": [%s],
+            "filter": [%s]
+          }
+        }
+        """.formatted(textClause, String.join(", ", filters));
+  }
+
+  /**
+   * First tier: exact analyzed terms on the main fields, OR a trigram overlap
+   * on the product name (catches partial words such as "headph").
    */
-  private Page<ProductDocument> searchMultiField(String keyword, Pageable pageable) {
+  private String analyzedMatch(String keyword) {
     String safe = escapeJson(keyword);
-    String jsonQuery = """
+    return """
+        {
+          "bool": {
+            "should": [
+              {
+                "multi_match": {
+                  "query": "%s",
+                  "fields": ["productName^3", "categoryName^2", "productDescription"]
+                }
+              },
+              {
+                "match": {
+                  "productName.trigram": {
+                    "query": "%s",
+                    "minimum_should_match": "60%%",
+                    "boost": 0.5
+                  }
+                }
+              }
+            ],
+            "minimum_should_match": 1
+          }
+        }
+        """.formatted(safe, safe);
+  }
+
+  /**
+   * Fallback tier: the original AUTO fuzziness, with a 1-char prefix and a cap
+   * on expansions to bound the term-dictionary walk.
+   */
+  private String fuzzyMatch(String keyword) {
+    return """
         {
           "multi_match": {
             "query": "%s",
             "fields": ["productName^3", "categoryName^2", "productDescription"],
-            "fuzziness": "AUTO"
+            "fuzziness": "AUTO",
+            "prefix_length": 1,
+            "max_expansions": 20
           }
         }
-        """.formatted(safe);
+        """.formatted(escapeJson(keyword));
+  }
+
+  private String priceRange(BigDecimal min, BigDecimal max) {
+    StringBuilder bounds = new StringBuilder();
+    if (min != null) {
+      bounds.append("\"gte\": ").append(min.toPlainString());
+    }
+    if (max != null) {
+      if (bounds.length() > 0) {
+        bounds.append(", ");
+      }
+      bounds.append("\"lte\": ").append(max.toPlainString());
+    }
+    return "{\"range\": {\"productPrice\": {" + bounds + "}}}";
+  }
+
+  private String categoryTerm(String category) {
+    return "{\"term\": {\"categoryName.keyword\": \"" + escapeJson(category) + "\"}}";
+  }
 
+  /**
+   * Runs the query against Elasticsearch (price- or newest-sorted when the
+   * query asked for it, relevance otherwise), fetching only the card fields,
+   * recording the client round trip and the server-reported "took" time, and
+   * maps the hits into a Page.
+   * Field sorts read doc values and end with productId so pages are stable;
+   * their hit count is only exact up to search.sorted-track-total-hits-up-to.
+   * The call goes through {@link ElasticsearchGuard} (deadline, breaker, hedging).
+   */
+  private Page<ProductDocument> executeSearch(String jsonQuery, SearchSort sort, Pageable pageable,
+      long deadline) {
     StringQuery query = new StringQuery(jsonQuery, pageable);
-    SearchHits<ProductDocument> hits = elasticsearchOperations.search(query, ProductDocument.class);
+    query.addSourceFilter(CARD_SOURCE_FILTER);
+    Sort fieldSort = elasticsearchSort(sort);
+    if (fieldSort != null) {
+      query.addSort(fieldSort);
+      query.setTrackTotalHitsUpTo(searchProperties.getSortedTrackTotalHitsUpTo());
+    }
+
+    SearchHits<ProductDocument> hits = elasticsearchGuard.call(() -> esRoundTripTimer.record(
+        () -> elasticsearchOperations.search(query, ProductDocument.class)), deadline);
+    Duration took = hits.getExecutionDuration();
+    if (took != null) {
+      esTookSummary.record(took.toMillis());
+    }
     List<ProductDocument> content = hits.getSearchHits().stream()
         .map(SearchHit::getContent)
         .collect(Collectors.toList());
@@ -139,56 +591,93 @@ public class ProductService {
     return new PageImpl<>(content, pageable, hits.getTotalHits());
   }
 
+  private Sort elasticsearchSort(SearchSort sort) {
+    switch (sort) {
+      case PRICE_ASC:
+        return Sort.by(Sort.Order.asc("productPrice"), Sort.Order.asc("productId"));
+      case PRICE_DESC:
+        return Sort.by(Sort.Order.desc("productPrice"), Sort.Order.desc("productId"));
+      case NEWEST:
+        return Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("productId"));
+      default:
+        return null; // _score
+    }
+  }
+
+  // ─── Browse (Elasticsearch first, MySQL fallback) ────────────────────────
+
   /**
-   * Price-filtered search: keyword (nullable) + max price ceiling.
-   * e.g., "phones under 5000 rupees" → keyword="phones", maxPrice=5000
-   * If only price given (keyword=null), returns ALL products within budget.
+   * One endpoint for category / price / keyword browsing in any combination.
+   *
+   * Runs on Elasticsearch so catalogue reads stay off the MySQL primary:
+   * category (by id) and price bounds are pure filter context, and without a
+   * keyword nothing is scored at all. A keyword adds the same analyzed match
+   * as search (no query-text parsing here — the constraints are explicit).
+   *
+   * Only if ES is unavailable (error, deadline, open circuit) does the
+   * request fall back to one combined MySQL query; its keyword match is a
+   * plain name substring.
    */
-  private Page<ProductDocument> searchWithPriceFilter(String keyword, BigDecimal maxPrice, Pageable pageable) {
-    String jsonQuery;
+  public Page<ProductDocument> browseProducts(Long categoryId, BigDecimal min, BigDecimal max,
+      String keyword, SearchSort sort, Pageable pageable) {
+    String text = keyword == null || keyword.isBlank() ? null : keyword.trim();
+    try {
+      long deadline = elasticsearchGuard.newDeadline();
+      return browseTimer.record(
+          () -> browseOnElasticsearch(categoryId, min, max, text, sort, pageable, deadline));
+    } catch (RuntimeException e) {
+      browseMysqlFallbackCounter.increment();
+      logger.warn("Elasticsearch browse failed, serving from MySQL: {}", e.getMessage());
+      return browseOnMysql(categoryId, min, max, text, sort, pageable);
+    }
+  }
+
+  private Page<ProductDocument> browseOnElasticsearch(Long categoryId, BigDecimal min, BigDecimal max,
+      String keyword, SearchSort sort, Pageable pageable, long deadline) {
+    List<String> filters = new ArrayList<>(2);
+    if (categoryId != null) {
+      filters.add("{\"term\": {\"categoryId\": " + categoryId + "}}");
+    }
+    if (min != null || max != null) {
+      filters.add(priceRange(min, max));
+    }
 
-    if (keyword == null || keyword.isBlank()) {
-      // No keyword — match everything under the price
+    String jsonQuery;
+    if (keyword != null) {
+      jsonQuery = withFilters(analyzedMatch(keyword), filters);
+    } else if (filters.isEmpty()) {
       jsonQuery = """
-          {
-            "bool": {
-              "must": [{"match_all": {}}],
-              "filter": [{"range": {"productPrice": {"lte": %s}}}]
-            }
-          }
-          """.formatted(maxPrice.toPlainString());
+          {"match_all": {}}
+          """;
     } else {
-      String safe = escapeJson(keyword);
+      // No keyword — filter context only, nothing is scored
       jsonQuery = """
           {
             "bool": {
-              "must": [{
-                "multi_match": {
-                  "query": "%s",
-                  "fields": ["productName^3", "categoryName^2", "productDescription"],
-                  "fuzziness": "AUTO"
-                }
-              }],
-              "filter": [{"range": {"productPrice": {"lte": %s}}}]
+              "filter": [%s]
             }
           }
-          """.formatted(safe, maxPrice.toPlainString());
+          """.formatted(String.join(", ", filters));
     }
+    return executeSearch(jsonQuery, sort, pageable, deadline);
+  }
 
-    StringQuery query = new StringQuery(jsonQuery, pageable);
-    SearchHits<ProductDocument> hits = elasticsearchOperations.search(query, ProductDocument.class);
-    List<ProductDocument> content = hits.getSearchHits().stream()
-        .map(SearchHit::getContent)
-        .collect(Collectors.toList());
-
-    return new PageImpl<>(content, pageable, hits.getTotalHits());
+  private Page<ProductDocument> browseOnMysql(Long categoryId, BigDecimal min, BigDecimal max,
+      String keyword, SearchSort sort, Pageable pageable) {
+    Specification<Product> spec = Specification.where(ProductSpecifications.inCategory(categoryId))
+        .and(ProductSpecifications.priceAtLeast(min))
+        .and(ProductSpecifications.priceAtMost(max))
+        .and(ProductSpecifications.nameContains(keyword));
+    Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.toJpaSort());
+    return productRepository.findAll(spec, sorted).map(this::convertToDocument);
   }
 
   // ─── MySQL → Elasticsearch Sync ──────────────────────────────────────────
 
   /**
    * Maps a MySQL Product entity to an Elasticsearch ProductDocument.
-   * Includes imageUrl and categoryName for richer search results.
+   * Includes imageUrl and categoryName for richer search results, and
+   * createdAt/productId for sorting.
    */
   public ProductDocument convertToDocument(Product product) {
     ProductDocument doc = new ProductDocument();
@@ -197,36 +686,62 @@ public class ProductService {
     doc.setProductDescription(product.getProductDescription());
     doc.setProductPrice(product.getProductPrice());
     doc.setImageUrl(product.getImageUrl());
+    doc.setProductId(product.getProductId());
+    if (product.getCreatedAt() != null) {
+      doc.setCreatedAt(product.getCreatedAt().toInstant());
+    }
     if (product.getCategory() != null) {
       doc.setCategoryName(product.getCategory().getCategoryName());
+      doc.setCategoryId(product.getCategory().getCategoryId());
     }
     return doc;
   }
 
   /**
-   * Full re-index: clears Elasticsearch, then re-syncs all products from MySQL.
+   * Full re-index: recreates the Elasticsearch index (so mapping changes such as
+   * new subfields take effect), then re-syncs all products from MySQL.
+   * The local fallback index is rebuilt from the same documents first, so it
+   * is available even when the ES half of the sync fails. Afterwards the
+   * search cache is emptied and {@link CatalogReindexedEvent} triggers its
+   * warm-up with the top queries and the related-products rebuild.
    * Call this after adding/editing products, or when ES index gets stale.
    * Endpoint: POST /api/products/sync
    */
   public void syncAllProducts() {
-    List<Product> products = productRepository.findAll();
-    List<ProductDocument> documents = products.stream()
+    List<Product> products = syncReadTimer.record(() -> productRepository.findAll());
+    List<ProductDocument> documents = syncConvertTimer.record(() -> products.stream()
         .map(this::convertToDocument)
-        .toList();
-    productElasticRepository.deleteAll(); // wipe old index first
-    productElasticRepository.saveAll(documents);
+        .toList());
+    localProductIndex.rebuild(documents);
+    syncDeleteTimer.record(this::recreateIndex); // wipe old index first
+    syncBulkTimer.record(() -> productElasticRepository.saveAll(documents));
+    if (searchCache != null) {
+      searchCache.invalidateAll();
+    }
+    eventPublisher.publishEvent(new CatalogReindexedEvent(documents));
+  }
+
+  /**
+   * Drops and recreates the products index from product-settings.json, with
+   * the replica count taken from search.index-replicas so the same settings
+   * file fits a single node (0, green) and a cluster.
+   */
+  private void recreateIndex() {
+    IndexOperations indexOps = elasticsearchOperations.indexOps(ProductDocument.class);
+    indexOps.delete();
+    Settings settings = indexOps.createSettings().flatten();
+    settings.put("index.number_of_replicas", searchProperties.getIndexReplicas());
+    indexOps.create(settings, indexOps.createMapping());
   }
 
   // ─── Helpers ─────────────────────────────────────────────────────────────
 
   /**
-   * Escapes special characters to make a string safe inside a JSON string value.
+   * Escapes a string for use inside a JSON string value: quotes,
+   * backslashes and every control character (Jackson's encoder), so user
+   * text such as "a\u0001b" cannot break the query.
    */
   private String escapeJson(String input) {
-    return input
-        .replace("\\", "\\\\")
-        .replace("\"", "\\\"")
-        .replace("\n", "\\n")
-        .replace("\r", "\\r");
+    return new String(JsonStringEncoder.getInstance().quoteAsString(input));
   }
 }
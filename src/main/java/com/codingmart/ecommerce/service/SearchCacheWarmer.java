@@ -0,0 +1,56 @@
+package com.codingmart.ecommerce.service;
+
+import com.codingmart.ecommerce.event.CatalogReindexedEvent;
+import com.codingmart.ecommerce.search.QueryAnalytics;
+import com.codingmart.ecommerce.search.SearchProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Refills the search result cache with the current top queries (first page)
+ * after every reindex, including the one at startup, so the most common
+ * searches do not all miss at once. Runs on the async executor; queries are
+ * replayed one at a time to keep the load on a freshly built index low.
+ */
+@Component
+public class SearchCacheWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchCacheWarmer.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private QueryAnalytics queryAnalytics;
+
+    @Autowired
+    private SearchProperties searchProperties;
+
+    @Async
+    @EventListener
+    public void onReindexed(CatalogReindexedEvent event) {
+        SearchProperties.Cache config = searchProperties.getCache();
+        if (!config.isEnabled() || config.getWarmQueries() <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<QueryAnalytics.TopQuery> queries = queryAnalytics.warmQueries(config.getWarmQueries());
+        int warmed = 0;
+        for (QueryAnalytics.TopQuery query : queries) {
+            try {
+                productService.warmSearch(query.getQuery(), query.getSort(), config.getWarmPageSize());
+                warmed++;
+            } catch (RuntimeException e) {
+                logger.warn("Search cache warm-up stopped after {} queries: {}", warmed, e.getMessage());
+                return;
+            }
+        }
+        logger.info("Search cache warmed with {} top queries in {} ms", warmed, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,93 @@
+package com.codingmart.ecommerce.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing ("single flight"): concurrent calls for the same key
+ * share one in-flight backend call and its outcome.
+ *
+ * The first caller for a key (the leader) runs the loader on its own thread;
+ * callers arriving while it runs (followers) wait for the leader's result or
+ * exception. Nothing is cached — the key is forgotten as soon as the leader
+ * finishes, so the next call goes to the backend again.
+ *
+ * A follower that waits longer than the follower timeout stops waiting and
+ * calls the loader itself, so one stuck leader cannot hold every follower.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long followerTimeoutNanos;
+    private final Counter coalescedCounter;
+    private final Counter followerTimeoutCounter;
+
+    /**
+     * @param name tag value for the "singleflight.*" meters (fixed, not user input)
+     */
+    public SingleFlight(String name, Duration followerTimeout, MeterRegistry meterRegistry) {
+        this.followerTimeoutNanos = followerTimeout.toNanos();
+        this.coalescedCounter = Counter.builder("singleflight.coalesced")
+                .description("Calls that shared another caller's in-flight backend call")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.followerTimeoutCounter = Counter.builder("singleflight.follower.timeouts")
+                .description("Followers that gave up waiting and called the backend themselves")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the loader's result for this key, running it at most once across
+     * concurrent callers. Exceptions thrown by the leader's loader reach every
+     * follower unchanged.
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing == null) {
+            return lead(key, call, loader);
+        }
+
+        coalescedCounter.increment();
+        try {
+            return existing.get(followerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            followerTimeoutCounter.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight call", e);
+        }
+    }
+
+    private V lead(K key, CompletableFuture<V> call, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+}
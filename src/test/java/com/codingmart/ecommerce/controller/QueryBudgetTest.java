@@ -0,0 +1,228 @@
+package com.codingmart.ecommerce.controller;
+
+import com.codingmart.ecommerce.document.ProductDocument;
+import com.codingmart.ecommerce.entity.Category;
+import com.codingmart.ecommerce.entity.Product;
+import com.codingmart.ecommerce.repository.ProductRepository;
+import com.codingmart.ecommerce.repository.elastic.ProductElasticRepository;
+import com.codingmart.ecommerce.search.RelatedProductsIndex;
+import com.codingmart.ecommerce.security.JwtUtil;
+import com.codingmart.ecommerce.service.CategoryService;
+import com.codingmart.ecommerce.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.codingmart.ecommerce.diagnostics.QueryBudgetMatchers.statementCount;
+import static com.codingmart.ecommerce.diagnostics.QueryBudgetMatchers.withinQueryBudget;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * One request per {@link com.codingmart.ecommerce.diagnostics.QueryBudget}
+ * endpoint against the embedded database, checking the statements it issued.
+ * Paged requests use a page smaller than the data, so count queries run too.
+ * Elasticsearch is mocked: it answers with no hits, or fails where the
+ * MySQL fallback is under test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RelatedProductsIndex relatedProductsIndex;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @MockitoBean
+    private ProductElasticRepository productElasticRepository;
+
+    private Long categoryId;
+    private List<Long> productIds;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        SearchHits<ProductDocument> noHits = mock(SearchHits.class);
+        when(elasticsearchOperations.search(any(Query.class), eq(ProductDocument.class))).thenReturn(noHits);
+
+        if (productRepository.count() == 0) {
+            seedCatalog();
+        }
+        List<Product> products = productRepository.findAll();
+        categoryId = products.get(0).getCategory().getCategoryId();
+        productIds = products.stream().map(Product::getProductId).toList();
+    }
+
+    private void seedCatalog() {
+        List<Product> products = new ArrayList<>();
+        for (String name : List.of("Electronics", "Books")) {
+            Category category = new Category();
+            category.setCategoryName(name);
+            category = categoryService.createCategory(category);
+            for (int i = 1; i <= 5; i++) {
+                Product product = new Product();
+                product.setProductName(name + " wireless item " + i);
+                product.setProductDescription("A " + name.toLowerCase() + " product, model " + (i % 2 == 0 ? "pro" : "lite"));
+                product.setProductPrice(BigDecimal.valueOf(100L * i));
+                product.setCategory(category);
+                products.add(product);
+            }
+        }
+        productRepository.saveAll(products);
+        relatedProductsIndex.rebuild(products.stream().map(productService::convertToDocument).toList());
+    }
+
+    private String bearer() {
+        return "Bearer " + jwtUtil.generateToken("budget@example.com");
+    }
+
+    // ─── Products ───────────────────────────────────────────────────────────
+
+    @Test
+    void allProducts() throws Exception {
+        mockMvc.perform(get("/api/products").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    @Test
+    void productsByCategory() throws Exception {
+        mockMvc.perform(get("/api/products/category/{id}", categoryId).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    @Test
+    void search() throws Exception {
+        mockMvc.perform(get("/api/products/search").param("q", "wireless books under 500"))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    @Test
+    void browseOnElasticsearch() throws Exception {
+        mockMvc.perform(get("/api/products/browse").param("categoryId", categoryId.toString()).param("q", "wireless"))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget())
+                .andExpect(statementCount(0));
+    }
+
+    @Test
+    void browseFallsBackToMysql() throws Exception {
+        when(elasticsearchOperations.search(any(Query.class), eq(ProductDocument.class)))
+                .thenThrow(new DataAccessResourceFailureException("Elasticsearch is down"));
+
+        mockMvc.perform(get("/api/products/browse").param("categoryId", categoryId.toString())
+                        .param("min", "100").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    @Test
+    void filterByPrice() throws Exception {
+        mockMvc.perform(get("/api/products/filter").param("min", "0").param("max", "100000").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    @Test
+    void batchGet() throws Exception {
+        mockMvc.perform(get("/api/products/batch").param("ids", ids()))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    @Test
+    void batchPost() throws Exception {
+        mockMvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + ids() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    @Test
+    void relatedProducts() throws Exception {
+        mockMvc.perform(get("/api/products/{id}/related", productIds.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    @Test
+    void productById() throws Exception {
+        mockMvc.perform(get("/api/products/{id}", productIds.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    // ─── Categories ─────────────────────────────────────────────────────────
+
+    @Test
+    void allCategories() throws Exception {
+        mockMvc.perform(get("/api/categories").header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    @Test
+    void categoryById() throws Exception {
+        mockMvc.perform(get("/api/categories/{id}", categoryId).header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(withinQueryBudget());
+    }
+
+    // ─── Auth ───────────────────────────────────────────────────────────────
+
+    @Test
+    void signup() throws Exception {
+        String email = "budget-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/signup").contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"fullName": "Budget Test", "email": "%s",
+                                 "password": "Secret@123", "confirmPassword": "Secret@123"}
+                                """.formatted(email)))
+                .andExpect(status().isCreated())
+                .andExpect(withinQueryBudget());
+    }
+
+    private String ids() {
+        return String.join(",", productIds.subList(0, 3).stream().map(String::valueOf).toList());
+    }
+}
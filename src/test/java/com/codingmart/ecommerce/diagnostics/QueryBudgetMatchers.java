@@ -0,0 +1,46 @@
+package com.codingmart.ecommerce.diagnostics;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MockMvc assertions on the {@link RequestQueryStats} of a request, as
+ * reported by {@link QueryStatsResponseAdvice} in the X-Query-Count header
+ * (the test profile turns query-stats.headers on).
+ */
+public final class QueryBudgetMatchers {
+
+    private QueryBudgetMatchers() {
+    }
+
+    /**
+     * The request issued no more Hibernate statements than its handler's
+     * {@link QueryBudget}. Fails if the handler declares no budget.
+     */
+    public static ResultMatcher withinQueryBudget() {
+        return result -> {
+            assertTrue(result.getHandler() instanceof HandlerMethod, "request did not reach a controller method");
+            HandlerMethod handler = (HandlerMethod) result.getHandler();
+            QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+            assertNotNull(budget, handler.getShortLogMessage() + " declares no @QueryBudget");
+            int statements = statements(result.getResponse().getHeader("X-Query-Count"));
+            assertTrue(statements <= budget.value(), handler.getShortLogMessage() + " issued " + statements
+                    + " statement(s), budget " + budget.value());
+        };
+    }
+
+    /** The request issued exactly this many Hibernate statements. */
+    public static ResultMatcher statementCount(int expected) {
+        return result -> assertEquals(expected, statements(result.getResponse().getHeader("X-Query-Count")),
+                "statements issued by the request");
+    }
+
+    private static int statements(String header) {
+        assertNotNull(header, "no X-Query-Count header: the response has no body or query-stats.headers is off");
+        return Integer.parseInt(header);
+    }
+}
@@ -0,0 +1,72 @@
+package com.codingmart.ecommerce.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkuStockTest {
+
+    private static final int THREADS = 16;
+    private static final long INITIAL_STOCK = 10_000;
+
+    @Test
+    void concurrentBuyersNeverOversell() throws Exception {
+        SkuStock sku = new SkuStock(1L, INITIAL_STOCK, 0, 8);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Long>> buyers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                buyers.add(pool.submit(() -> {
+                    start.await();
+                    long taken = 0;
+                    int misses = 0;
+                    // Keep buying until the SKU has been sold out a few times in a row
+                    while (misses < 100) {
+                        int quantity = 1 + ThreadLocalRandom.current().nextInt(3);
+                        if (sku.tryTake(quantity)) {
+                            taken += quantity;
+                            misses = 0;
+                        } else {
+                            misses++;
+                        }
+                    }
+                    return taken;
+                }));
+            }
+            start.countDown();
+
+            long totalTaken = 0;
+            for (Future<Long> buyer : buyers) {
+                totalTaken += buyer.get();
+            }
+            assertTrue(totalTaken <= INITIAL_STOCK, "sold " + totalTaken + " of " + INITIAL_STOCK);
+            assertEquals(INITIAL_STOCK - totalTaken, sku.available());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void releasedUnitsCanBeTakenAgain() {
+        SkuStock sku = new SkuStock(1L, 5, 0, 4);
+
+        assertTrue(sku.tryTake(5));
+        assertFalse(sku.tryTake(1));
+        sku.add(2);
+
+        assertEquals(2, sku.available());
+        assertTrue(sku.tryTake(2));
+        assertEquals(0, sku.available());
+    }
+}
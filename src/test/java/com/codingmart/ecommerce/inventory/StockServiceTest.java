@@ -0,0 +1,65 @@
+package com.codingmart.ecommerce.inventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StockServiceTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    private StockService stockService;
+    private SkuStock sku;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stockService = new StockService();
+        ReflectionTestUtils.setField(stockService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stockService, "reservationTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(stockService, "maxReservationQuantity", 99);
+        ReflectionTestUtils.invokeMethod(stockService, "initMetrics");
+
+        sku = new SkuStock(PRODUCT_ID, 10, 0, 4);
+        Map<Long, SkuStock> skus = (Map<Long, SkuStock>) ReflectionTestUtils.getField(stockService, "skus");
+        skus.put(PRODUCT_ID, sku);
+    }
+
+    @Test
+    void reservationRetriedAfterEvictionBacksOffKeepsStock() {
+        // The reconciler raises closed just as the first attempt registers its
+        // reservation, sees that reservation and backs off, keeping the SKU in memory.
+        ReflectionTestUtils.setField(stockService, "reservations", new ConcurrentHashMap<String, Reservation>() {
+            private boolean evicting = true;
+
+            @Override
+            public Reservation put(String key, Reservation value) {
+                if (evicting) {
+                    sku.closed = true;
+                }
+                return super.put(key, value);
+            }
+
+            @Override
+            public Reservation remove(Object key) {
+                if (evicting) {
+                    evicting = false;
+                    sku.closed = false;
+                }
+                return super.remove(key);
+            }
+        });
+
+        stockService.reserve("buyer@example.com", PRODUCT_ID, 3);
+
+        assertEquals(7, sku.available());
+        assertEquals(3, stockService.reserved(PRODUCT_ID));
+    }
+}
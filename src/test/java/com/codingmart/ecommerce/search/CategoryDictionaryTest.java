@@ -0,0 +1,97 @@
+package com.codingmart.ecommerce.search;
+
+import com.codingmart.ecommerce.entity.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CategoryDictionaryTest {
+
+    private CategoryDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        SearchProperties properties = new SearchProperties();
+        properties.setCategorySynonyms(Map.of("toys-games", List.of("toys", "games")));
+        dictionary = new CategoryDictionary();
+        ReflectionTestUtils.setField(dictionary, "searchProperties", properties);
+        dictionary.rebuild(List.of(category("Shoes"), category("Toys & Games"), category("Watch"),
+                category("Accessories"), category("Electronics")));
+    }
+
+    @Test
+    void otherNumberUsesWholeWordRulesOnly() {
+        assertEquals("shoe", CategoryDictionary.otherNumber("shoes"));
+        assertEquals("game", CategoryDictionary.otherNumber("games"));
+        assertEquals("watches", CategoryDictionary.otherNumber("watch"));
+        assertEquals("watch", CategoryDictionary.otherNumber("watches"));
+        assertEquals("accessory", CategoryDictionary.otherNumber("accessories"));
+        assertEquals("batteries", CategoryDictionary.otherNumber("battery"));
+        assertEquals("toys", CategoryDictionary.otherNumber("toy"));
+        assertNull(CategoryDictionary.otherNumber("electronics"));
+        assertNull(CategoryDictionary.otherNumber("dress"));
+    }
+
+    @Test
+    void truncatedStemsAreNotCategories() {
+        assertFalse(dictionary.resolve(query("sho laces")).hasCategory());
+        assertFalse(dictionary.resolve(query("gam controller")).hasCategory());
+        assertFalse(dictionary.resolve(query("shoeses")).hasCategory());
+    }
+
+    @Test
+    void nameAndRuleFormsResolve() {
+        SearchQuery resolved = dictionary.resolve(query("running shoe"));
+        assertEquals("Shoes", resolved.getCategory());
+        assertEquals("running", resolved.getKeyword());
+
+        assertEquals("Watch", dictionary.resolve(query("watches")).getCategory());
+        assertEquals("Accessories", dictionary.resolve(query("accessory")).getCategory());
+        assertEquals("Toys & Games", dictionary.resolve(query("board games")).getCategory());
+    }
+
+    @Test
+    void realNameBeatsAnEarlierCategorysSynonym() {
+        SearchProperties properties = new SearchProperties();
+        properties.setCategorySynonyms(Map.of("home-kitchen", List.of("kitchen", "home decor")));
+        ReflectionTestUtils.setField(dictionary, "searchProperties", properties);
+        dictionary.rebuild(List.of(category("Home & Kitchen"), category("Kitchen")));
+
+        assertEquals("Kitchen", dictionary.resolve(query("kitchen knives")).getCategory());
+        assertEquals("Home & Kitchen", dictionary.resolve(query("home decor lamps")).getCategory());
+    }
+
+    @Test
+    void inferredCategoryCanBeUndone() {
+        SearchQuery parsed = query("running shoes");
+        SearchQuery resolved = dictionary.resolve(parsed);
+
+        assertTrue(resolved.isCategoryInferred());
+        SearchQuery unscoped = resolved.withoutCategory();
+        assertSame(parsed, unscoped);
+        assertFalse(unscoped.hasCategory());
+        assertEquals("running shoes", unscoped.getKeyword());
+
+        SearchQuery sorted = resolved.withSort(SearchSort.PRICE_ASC);
+        assertEquals(SearchSort.PRICE_ASC, sorted.withoutCategory().getSort());
+    }
+
+    private static SearchQuery query(String keyword) {
+        return new SearchQuery(keyword, null, null, null);
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setCategoryName(name);
+        return category;
+    }
+}
@@ -0,0 +1,154 @@
+package com.codingmart.ecommerce.search;
+
+import com.codingmart.ecommerce.exception.ElasticsearchUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElasticsearchGuardTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(10);
+
+    private final AtomicLong clock = new AtomicLong();
+    private SearchProperties properties;
+    private ElasticsearchGuard guard;
+    private final CountDownLatch esAnswers = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        properties = new SearchProperties();
+        SearchProperties.Guard settings = properties.getGuard();
+        settings.setTimeout(Duration.ofSeconds(5));
+        settings.setHedgeEnabled(false);
+        SearchProperties.Breaker breaker = settings.getBreaker();
+        breaker.setWindowSize(1);
+        breaker.setMinimumCalls(1);
+        breaker.setOpenDuration(OPEN_DURATION);
+        breaker.setHalfOpenCalls(1);
+
+        guard = new ElasticsearchGuard();
+        ReflectionTestUtils.setField(guard, "searchProperties", properties);
+        ReflectionTestUtils.setField(guard, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(guard, "breakerClock", (LongSupplier) clock::get);
+        ReflectionTestUtils.invokeMethod(guard, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        esAnswers.countDown();
+        ReflectionTestUtils.invokeMethod(guard, "shutdown");
+    }
+
+    @Test
+    void interruptedHalfOpenTrialGivesItsPermitBack() throws Exception {
+        assertThrows(DataAccessResourceFailureException.class, () -> guard.call(() -> {
+            throw new DataAccessResourceFailureException("connection refused");
+        }, guard.newDeadline()));
+        assertThrows(ElasticsearchUnavailableException.class,
+                () -> guard.call(() -> "not sent", guard.newDeadline()));
+        clock.addAndGet(OPEN_DURATION.toNanos());
+
+        // The only half-open trial call: its caller is interrupted while ES is still working
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Throwable> trialError = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                guard.call(() -> {
+                    started.countDown();
+                    try {
+                        esAnswers.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "late";
+                }, guard.newDeadline());
+            } catch (Throwable t) {
+                trialError.set(t);
+            }
+        });
+        caller.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(5_000);
+        assertInstanceOf(ElasticsearchUnavailableException.class, trialError.get());
+
+        assertEquals("ok", guard.call(() -> "ok", guard.newDeadline()));
+    }
+
+    @Test
+    void hedgeThatSucceedsWinsOverAFailedPrimary() {
+        enableHedging();
+        CountDownLatch hedgeStarted = new CountDownLatch(1);
+        CountDownLatch primaryFailed = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = guard.call(() -> {
+            if (calls.getAndIncrement() == 0) {
+                await(hedgeStarted);
+                primaryFailed.countDown();
+                throw new DataAccessResourceFailureException("first node down");
+            }
+            hedgeStarted.countDown();
+            await(primaryFailed);
+            pause(100); // let the primary's failure land first
+            return "hedged";
+        }, guard.newDeadline());
+
+        assertEquals("hedged", result);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void hedgedCallFailsOnlyWhenBothRequestsFail() {
+        enableHedging();
+        CountDownLatch hedgeStarted = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(DataAccessResourceFailureException.class, () -> guard.call(() -> {
+            if (calls.getAndIncrement() == 0) {
+                await(hedgeStarted);
+            } else {
+                hedgeStarted.countDown();
+            }
+            throw new DataAccessResourceFailureException("node down");
+        }, guard.newDeadline()));
+        assertEquals(2, calls.get());
+    }
+
+    private void enableHedging() {
+        properties.getGuard().setHedgeEnabled(true);
+        ReflectionTestUtils.setField(guard, "hedgeDelayNanos", Duration.ofMillis(20).toNanos());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.codingmart.ecommerce.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTest {
+
+    private static final int CAPACITY = 50;
+
+    @Test
+    void longTailOfUniqueKeysKeepsTableBounded() {
+        HeavyHitters heavyHitters = new HeavyHitters(CAPACITY, 1 << 16, 4);
+
+        for (int i = 0; i < 200_000; i++) {
+            String key = "query " + i;
+            heavyHitters.add(key, HeavyHitters.hash(key));
+        }
+
+        assertTrue(heavyHitters.top(Integer.MAX_VALUE).size() <= 2 * CAPACITY,
+                "candidate table grew past twice its capacity");
+    }
+
+    @Test
+    void heavyKeysSurviveLongTail() {
+        HeavyHitters heavyHitters = new HeavyHitters(CAPACITY, 1 << 16, 4);
+
+        for (int i = 0; i < 100_000; i++) {
+            String unique = "query " + i;
+            heavyHitters.add(unique, HeavyHitters.hash(unique));
+            if (i % 10 == 0) {
+                String heavy = "heavy " + (i / 10 % 5);
+                heavyHitters.add(heavy, HeavyHitters.hash(heavy));
+            }
+        }
+
+        List<HeavyHitters.Candidate> top = heavyHitters.top(5);
+        assertEquals(5, top.size());
+        for (HeavyHitters.Candidate candidate : top) {
+            assertTrue(candidate.key.startsWith("heavy "), candidate.key);
+        }
+        assertTrue(heavyHitters.top(Integer.MAX_VALUE).size() <= 2 * CAPACITY);
+    }
+}
@@ -0,0 +1,64 @@
+package com.codingmart.ecommerce.search;
+
+import com.codingmart.ecommerce.document.ProductDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalProductIndexTest {
+
+    private LocalProductIndex index;
+
+    @BeforeEach
+    void setUp() {
+        SearchProperties properties = new SearchProperties();
+        properties.getLocalIndex().setMaxOverlay(2);
+        index = new LocalProductIndex();
+        ReflectionTestUtils.setField(index, "searchProperties", properties);
+        index.rebuild(List.of(document(1, "Steel water bottle")));
+    }
+
+    @Test
+    void writesWithinTheCapAreSearchable() {
+        index.upsertAll(List.of(document(2, "Glass water bottle"), document(3, "Copper water bottle")));
+
+        assertFalse(index.isStale());
+        assertEquals(3, search("bottle"));
+    }
+
+    @Test
+    void batchPastTheCapMarksIndexStaleUntilRebuild() {
+        index.upsertAll(List.of(document(2, "Glass water bottle")));
+        index.upsertAll(List.of(document(3, "Copper water bottle"), document(4, "Plastic water bottle")));
+
+        assertTrue(index.isStale());
+        assertEquals(2, search("bottle"));
+
+        index.upsertAll(List.of(document(5, "Bamboo water bottle")));
+        assertEquals(2, search("bottle"), "no writes are kept once stale");
+
+        index.rebuild(List.of(document(1, "Steel water bottle")));
+        assertFalse(index.isStale());
+    }
+
+    private long search(String keyword) {
+        return index.search(new SearchQuery(keyword, null, null, SearchSort.RELEVANCE), PageRequest.of(0, 10))
+                .getTotalElements();
+    }
+
+    private static ProductDocument document(long id, String name) {
+        ProductDocument document = new ProductDocument();
+        document.setId(Long.toString(id));
+        document.setProductName(name);
+        document.setProductPrice(BigDecimal.valueOf(100));
+        return document;
+    }
+}
@@ -0,0 +1,51 @@
+package com.codingmart.ecommerce.search;
+
+import com.codingmart.ecommerce.document.ProductDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RelatedProductsIndexTest {
+
+    private static final String[] KINDS = {"phone", "laptop", "shoe", "watch", "kettle"};
+
+    @Test
+    void everyProductGetsNeighboursOfItsOwnKind() {
+        List<ProductDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String kind = KINDS[i % KINDS.length];
+            documents.add(document(i + 1, "Brand" + (i % 7) + " " + kind + " model " + i,
+                    "A dependable " + kind + " for everyday use", i % KINDS.length));
+        }
+        RelatedProductsIndex index = new RelatedProductsIndex();
+        ReflectionTestUtils.setField(index, "searchProperties", new SearchProperties());
+
+        index.rebuild(documents);
+
+        assertEquals(documents.size(), index.size());
+        for (int i = 0; i < documents.size(); i++) {
+            List<Long> related = index.relatedIds((long) i + 1, 8);
+            assertFalse(related.isEmpty(), "no neighbours for product " + (i + 1));
+            for (Long id : related) {
+                assertTrue(id != i + 1, "product " + (i + 1) + " related to itself");
+                assertEquals(i % KINDS.length, (id - 1) % KINDS.length, "product " + (i + 1) + " → " + id);
+            }
+        }
+    }
+
+    private static ProductDocument document(long id, String name, String description, long categoryId) {
+        ProductDocument document = new ProductDocument();
+        document.setId(Long.toString(id));
+        document.setProductId(id);
+        document.setProductName(name);
+        document.setProductDescription(description);
+        document.setCategoryId(categoryId);
+        return document;
+    }
+}
@@ -0,0 +1,110 @@
+package com.codingmart.ecommerce.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Micro-benchmark: {@link SearchQueryParser} against the PRICE_PATTERN regex
+ * chain it replaced (find + two replaceAll passes), on the same queries.
+ * Both are warmed up, then the best of several rounds is compared, in time
+ * and in bytes allocated per parse (HotSpot's per-thread allocation counter).
+ *
+ * Not part of the default test run: timings on a shared machine say little,
+ * so nothing is asserted. Run with mvn test -Pbenchmark; the figures are
+ * published as test report entries.
+ */
+@Tag("benchmark")
+class SearchQueryParserBenchmarkTest {
+
+    private static final String[] QUERIES = {
+            "phones under 5000 rupees",
+            "laptop below 50000 INR",
+            "watches less than 2000",
+            "jackets upto 3000 rs",
+            "running shoes 5000 or less",
+            "bluetooth headphones with noise cancellation",
+            "samsung galaxy 5g 128gb under rs 25,000",
+            "kids toys"
+    };
+
+    private static final int WARMUP = 50_000;
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 100_000;
+
+    /** The removed ProductService.PRICE_PATTERN. */
+    private static final Pattern PRICE_PATTERN = Pattern.compile(
+            "(?i)" +
+                    "(?:" +
+                    "(?:under|below|less\\s+than|within|cheaper\\s+than|upto|up\\s+to|max(?:imum)?|<)" +
+                    "\\s*(?:rs\\.?|inr|rupees?)?\\s*([\\d,]+)(?:\\s*(?:rs\\.?|inr|rupees?))?" +
+                    "|" +
+                    "([\\d,]+)\\s*(?:rs\\.?|inr|rupees?)?\\s*(?:or\\s+less|and\\s+below|max(?:imum)?)" +
+                    ")");
+
+    private final SearchQueryParser parser = new SearchQueryParser();
+
+    /** Keeps results reachable so the JIT cannot drop the work. */
+    private int sink;
+
+    @Test
+    void parserAgainstRegex(TestReporter reporter) {
+        run(this::parseWithParser, WARMUP);
+        run(this::parseWithRegex, WARMUP);
+
+        long[] parser = best(this::parseWithParser);
+        long[] regex = best(this::parseWithRegex);
+
+        reporter.publishEntry("parser", parser[0] / ITERATIONS + " ns/op, " + parser[1] / ITERATIONS + " B/op");
+        reporter.publishEntry("regex", regex[0] / ITERATIONS + " ns/op, " + regex[1] / ITERATIONS + " B/op");
+    }
+
+    /** {nanos, bytes} of the fastest round. */
+    private long[] best(Runnable parse) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bestNanos = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            run(parse, ITERATIONS);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            bestBytes = Math.min(bestBytes, threads.getThreadAllocatedBytes(thread) - bytes);
+        }
+        return new long[]{bestNanos, bestBytes};
+    }
+
+    private static void run(Runnable parse, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            parse.run();
+        }
+    }
+
+    private int next;
+
+    private void parseWithParser() {
+        SearchQuery query = parser.parse(QUERIES[next++ & 7]);
+        sink += query.getMaxPrice() != null ? 1 : 0;
+    }
+
+    private void parseWithRegex() {
+        String raw = QUERIES[next++ & 7];
+        Matcher matcher = PRICE_PATTERN.matcher(raw);
+        if (matcher.find()) {
+            String price = (matcher.group(1) != null ? matcher.group(1) : matcher.group(2)).replaceAll(",", "");
+            BigDecimal maxPrice = new BigDecimal(price);
+            String keyword = (raw.substring(0, matcher.start()) + " " + raw.substring(matcher.end()))
+                    .replaceAll("(?i)\\b(rs\\.?|inr|rupees?)\\b", "")
+                    .trim();
+            sink += maxPrice.signum() + keyword.length();
+        } else {
+            sink += raw.length();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.codingmart.ecommerce.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SearchQueryParserTest {
+
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(SearchQueryParser.MAX_PRICE_PAISE, 2);
+
+    private final SearchQueryParser parser = new SearchQueryParser();
+
+    /** Columns: raw query, keyword, min price, max price (empty = null). */
+    @ParameterizedTest(name = "\"{0}\"")
+    @CsvSource(delimiter = '|', nullValues = "", value = {
+            // ranges
+            "laptop 1k-5k            | laptop          | 1000.00  | 5000.00",
+            "laptop 1000 to 5000     | laptop          | 1000.00  | 5000.00",
+            "between 1000 and 5000   |                 | 1000.00  | 5000.00",
+            "tv from 10k to 20k      | tv              | 10000.00 | 20000.00",
+            // max-price cues
+            "phones under 5k         | phones          |          | 5000.00",
+            "phones below rs 5000    | phones          |          | 5000.00",
+            "shoes 5000 or less      | shoes           |          | 5000.00",
+            "watch max 300           | watch           |          | 300.00",
+            "bag less than ₹1.5 lakh | bag             |          | 150000.00",
+            // min-price cues
+            "headphones above 2000   | headphones      | 2000.00  |",
+            "tablet over 10k         | tablet          | 10000.00 |",
+            "camera 5000+            | camera          | 5000.00  |",
+            // bare numbers stay keywords
+            "iphone 15               | iphone 15       |          |",
+            "size 10 shoes           | size 10 shoes   |          |",
+            "samsung galaxy 5g       | samsung galaxy 5g |        |",
+    })
+    void parsesPriceCues(String raw, String keyword, BigDecimal minPrice, BigDecimal maxPrice) {
+        SearchQuery query = parser.parse(raw);
+
+        assertEquals(keyword, query.getKeyword());
+        assertEquals(minPrice, query.getMinPrice());
+        assertEquals(maxPrice, query.getMaxPrice());
+    }
+
+    /** Columns: raw query, keyword, sort. */
+    @ParameterizedTest(name = "\"{0}\"")
+    @CsvSource(delimiter = '|', nullValues = "", value = {
+            "cheapest phones            | phones  | PRICE_ASC",
+            "laptops lowest price       | laptops | PRICE_ASC",
+            "tv price low to high       | tv      | PRICE_ASC",
+            "most expensive watches     | watches | PRICE_DESC",
+            "shoes high to low          | shoes   | PRICE_DESC",
+            "cheapest                   |         | PRICE_ASC",
+            "phones                     | phones  | RELEVANCE",
+    })
+    void recognisesSortIntent(String raw, String keyword, SearchSort sort) {
+        SearchQuery query = parser.parse(raw);
+
+        assertEquals(keyword, query.getKeyword());
+        assertEquals(sort, query.getSort());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "   ", "\t\n"})
+    void blankInputIsAnEmptyQuery(String raw) {
+        SearchQuery query = parser.parse(raw);
+
+        assertNull(query.getKeyword());
+        assertFalse(query.hasPriceFilter());
+        assertEquals(SearchSort.RELEVANCE, query.getSort());
+    }
+
+    @Test
+    void nullInputIsAnEmptyQuery() {
+        assertNull(parser.parse(null).getKeyword());
+    }
+
+    @Test
+    void parsesUnitsAndRanges() {
+        SearchQuery query = parser.parse("laptop between 50k and 1.5 lakh");
+
+        assertEquals("laptop", query.getKeyword());
+        assertEquals(new BigDecimal("50000.00"), query.getMinPrice());
+        assertEquals(new BigDecimal("150000.00"), query.getMaxPrice());
+    }
+
+    @Test
+    void clampsCroreAmountsThatWouldOverflow() {
+        SearchQuery query = parser.parse("phones under 999999999 crore");
+
+        assertEquals("phones", query.getKeyword());
+        assertEquals(MAX_PRICE, query.getMaxPrice());
+    }
+
+    @Test
+    void clampsAmountsAboveTheStorablePrice() {
+        SearchQuery query = parser.parse("above 5000 crore");
+
+        assertNull(query.getKeyword());
+        assertEquals(MAX_PRICE, query.getMinPrice());
+    }
+}